@@ -0,0 +1,54 @@
+package in.example.infolock.demo;
+
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application once per benchmark fork on the in-memory H2 database of
+ * the test profile, with one user and a token to act as.
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+    public ConfigurableApplicationContext context;
+    public Long userId;
+    public String email;
+    public String token;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+
+        email = "bench-" + UUID.randomUUID() + "@example.com";
+        userId = bean(UserRepository.class).save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        token = bean(JwtUtil.class).generateToken(new UserPrincipal(userId, email, "secret", List.of()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
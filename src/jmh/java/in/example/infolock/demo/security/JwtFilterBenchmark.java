@@ -0,0 +1,65 @@
+package in.example.infolock.demo.security;
+
+import in.example.infolock.demo.ApplicationState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The authentication filter end to end, as it runs in front of every API call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    private JwtFilter jwtFilter;
+    private String authorization;
+
+    @Setup
+    public void setUp(ApplicationState app) throws Exception {
+        jwtFilter = app.bean(JwtFilter.class);
+        authorization = "Bearer " + app.token;
+        // The first request verifies the token and loads the user; later ones hit the cache
+        filter(authorization);
+    }
+
+    @Benchmark
+    public int cachedToken() throws Exception {
+        return filter(authorization);
+    }
+
+    @Benchmark
+    public int invalidToken() throws Exception {
+        return filter("Bearer not-a-token");
+    }
+
+    private int filter(String header) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/documents");
+        request.setServletPath("/api/documents");
+        request.addHeader("Authorization", header);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            jwtFilter.doFilter(request, response, new MockFilterChain());
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.ApplicationState;
+import in.example.infolock.demo.dto.DocumentContent;
+import in.example.infolock.demo.dto.DocumentDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploading and downloading payloads from 1 KB to 100 MB through the blob store
+ * and H2. Compressible payloads go through the gzip encoder on the way in and are
+ * decoded on the way out.
+ *
+ * Every upload in a trial has the same bytes, so after the first one the blob is
+ * deduplicated; the measured cost is hashing, staging and the database insert.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentTransferBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int payloadBytes;
+
+    @Param({"false", "true"})
+    public boolean compressible;
+
+    private DocumentService documentService;
+    private Long userId;
+    private Long documentId;
+
+    @Setup
+    public void setUp(ApplicationState app) throws IOException {
+        documentService = app.bean(DocumentService.class);
+        userId = app.userId;
+        documentId = upload().getId();
+    }
+
+    @Benchmark
+    public DocumentDTO upload() throws IOException {
+        return documentService.uploadDocument(new PayloadStream(payloadBytes, compressible),
+                "application/octet-stream", "benchmark", "payload.bin", userId);
+    }
+
+    @Benchmark
+    public long download() throws IOException {
+        DocumentContent content = documentService.downloadUserDocument(documentId, userId);
+        try (InputStream in = content.getContent().getInputStream()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    /**
+     * Generates the payload on the fly, so a 100 MB upload does not need a 100 MB array.
+     */
+    private static final class PayloadStream extends InputStream {
+
+        private static final byte[] TEXT = ("Lorem ipsum dolor sit amet, consectetur adipiscing elit, "
+                + "sed do eiusmod tempor incididunt ut labore et dolore magna aliqua. ").getBytes(StandardCharsets.US_ASCII);
+
+        private final boolean compressible;
+        private final SplittableRandom random = new SplittableRandom(42);
+        private long remaining;
+        private long position;
+
+        PayloadStream(long size, boolean compressible) {
+            this.remaining = size;
+            this.compressible = compressible;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int count = (int) Math.min(length, remaining);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = compressible
+                        ? TEXT[(int) ((position + i) % TEXT.length)]
+                        : (byte) random.nextInt(256);
+            }
+            position += count;
+            remaining -= count;
+            return count;
+        }
+    }
+}
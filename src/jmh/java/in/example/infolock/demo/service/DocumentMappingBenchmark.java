@@ -0,0 +1,81 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.ApplicationState;
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building document listings: mapping loaded entities in memory, against the
+ * DTO projection the listing endpoints query from the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentMappingBenchmark {
+
+    @Param({"100", "10000"})
+    public int documents;
+
+    private DocumentService documentService;
+    private List<Document> entities;
+    private Long userId;
+
+    @Setup
+    public void setUp(ApplicationState app) {
+        documentService = app.bean(DocumentService.class);
+
+        String email = "listing-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = app.bean(UserRepository.class).save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        userId = user.getId();
+
+        List<Document> rows = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            rows.add(Document.builder()
+                    .fileName("document-" + i + ".pdf")
+                    .fileType("application/pdf")
+                    .category(i % 2 == 0 ? "finance" : "identity")
+                    .fileSize(1024L * i)
+                    .uploadDate(LocalDateTime.now().minusMinutes(i))
+                    .user(user)
+                    .build());
+        }
+        entities = app.bean(DocumentRepository.class).saveAll(rows);
+    }
+
+    @Benchmark
+    public List<DocumentDTO> mapEntities() {
+        return entities.stream().map(documentService::toDTO).toList();
+    }
+
+    @Benchmark
+    public List<DocumentDTO> queryProjection() {
+        return documentService.getUserDocuments(userId);
+    }
+}
@@ -0,0 +1,95 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.ApplicationState;
+import in.example.infolock.demo.dto.ShareRequest;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Share-link resolution throughput when a share of the requests carries tokens
+ * that do not exist, as a scanner probing the public share endpoint produces.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ShareResolutionBenchmark {
+
+    private static final int VALID_LINKS = 64;
+    private static final int TOKENS = 4096;
+
+    @Param({"0", "50", "90"})
+    public int invalidPercent;
+
+    private ShareService shareService;
+    private String[] tokens;
+
+    @Setup
+    public void setUp(ApplicationState app) {
+        shareService = app.bean(ShareService.class);
+        DocumentRepository documentRepository = app.bean(DocumentRepository.class);
+        String[] valid = new String[VALID_LINKS];
+        for (int i = 0; i < VALID_LINKS; i++) {
+            Document document = documentRepository.save(Document.builder()
+                    .fileName("shared-" + i + ".pdf")
+                    .fileType("application/pdf")
+                    .category("finance")
+                    .fileSize(1024L)
+                    .uploadDate(LocalDateTime.now())
+                    .user(app.bean(UserRepository.class).getReferenceById(app.userId))
+                    .build());
+            valid[i] = shareService.createShareLink(new ShareRequest(document.getId(), false, 30, null)).getShareToken();
+        }
+
+        Random random = new Random(42);
+        tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            if (random.nextInt(100) < invalidPercent) {
+                byte[] bytes = new byte[8];
+                random.nextBytes(bytes);
+                tokens[i] = HexFormat.of().formatHex(bytes);
+            } else {
+                tokens[i] = valid[random.nextInt(VALID_LINKS)];
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<ShareLink> resolve(Cursor cursor) {
+        return shareService.findViewableLink(tokens[cursor.next()]);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int position = new Random().nextInt(TOKENS);
+
+        int next() {
+            position = (position + 1) & (TOKENS - 1);
+            return position;
+        }
+    }
+}
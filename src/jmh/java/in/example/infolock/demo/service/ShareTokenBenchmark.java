@@ -0,0 +1,66 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.ApplicationState;
+import in.example.infolock.demo.dto.ShareRequest;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating share tokens and resolving them on the public share endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShareTokenBenchmark {
+
+    private ShareService shareService;
+    private String token;
+
+    @Setup
+    public void setUp(ApplicationState app) {
+        shareService = app.bean(ShareService.class);
+        Document document = app.bean(DocumentRepository.class).save(Document.builder()
+                .fileName("shared.pdf")
+                .fileType("application/pdf")
+                .category("finance")
+                .fileSize(1024L)
+                .uploadDate(LocalDateTime.now())
+                .user(app.bean(UserRepository.class).getReferenceById(app.userId))
+                .build());
+        token = shareService.createShareLink(new ShareRequest(document.getId(), true, 30, null)).getShareToken();
+    }
+
+    @Benchmark
+    public String generateUniqueToken() {
+        return shareService.generateUniqueToken();
+    }
+
+    @Benchmark
+    public Optional<ShareLink> resolveValidToken() {
+        return shareService.findViewableLink(token);
+    }
+
+    @Benchmark
+    public Optional<ShareLink> resolveUnknownToken() {
+        return shareService.findViewableLink("0000000000000000");
+    }
+}
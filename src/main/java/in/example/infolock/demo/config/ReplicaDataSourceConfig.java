@@ -0,0 +1,86 @@
+package in.example.infolock.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured DataSource with a {@link ReplicaRoutingDataSource}
+ * when {@code app.datasource.replicas.urls} lists at least one replica. The
+ * primary pool is still configured by the {@code spring.datasource.*} properties;
+ * the bean named {@code dataSource} stays the one JPA and the query metrics use.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Value("${app.datasource.replicas.urls}") List<String> urls,
+            @Value("${app.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${app.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${app.datasource.replicas.pool-size:10}") int poolSize,
+            @Value("${app.datasource.replicas.connection-timeout:PT1S}") Duration connectionTimeout,
+            @Value("${app.datasource.replicas.read-your-writes-window:PT5S}") Duration readYourWritesWindow,
+            @Value("${app.datasource.replicas.read-your-writes-secret:}") String readYourWritesSecret) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // A replica that is down at startup is skipped until it comes up
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWritesWindow, readYourWritesSecret);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> {
+            Gauge.builder("infolock.db.replicas.healthy", replicaRoutingDataSource, ReplicaRoutingDataSource::healthyReplicas)
+                    .description("Replicas currently taking reads")
+                    .register(registry);
+            FunctionCounter.builder("infolock.db.replica.reads", replicaRoutingDataSource, ReplicaRoutingDataSource::replicaReads)
+                    .description("Connections served by a replica")
+                    .register(registry);
+            FunctionCounter.builder("infolock.db.replica.failovers", replicaRoutingDataSource, ReplicaRoutingDataSource::failovers)
+                    .description("Replica connection failures that fell back to the primary")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package in.example.infolock.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import in.example.infolock.demo.security.UserPrincipal;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions of web requests to a healthy replica, round
+ * robin, and everything else to the primary. Background work stays on the
+ * primary, since it usually reacts to a change that was just committed there.
+ *
+ * A user whose transaction wrote to the primary reads from the primary too for
+ * {@code read-your-writes-window}, so an upload shows up in their next listing
+ * however far the replicas lag. The node that took the write remembers it, and
+ * when {@code read-your-writes-secret} is set the response also carries it in
+ * the {@value #WRITE_COOKIE} cookie, so the next request reads from the primary
+ * whichever node it lands on. The cookie is signed with the user id and holds
+ * its own deadline, so it is honoured for no one else and for no longer than the
+ * window. Clients that do not keep cookies only get this from the node that took
+ * the write, so the load balancer has to keep them on one node, as it has for
+ * every client when no secret is set. A replica that refuses a connection is taken out
+ * of rotation until the next health check finds it reachable again; the read
+ * then falls back to the primary. A replica whose pool is merely busy stays in
+ * rotation, and the read goes to the next one or the primary.
+ *
+ * Routing needs the transaction's read-only flag, which is set after the
+ * connection is requested, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    static final String WRITE_COOKIE = "infolock_primary_until";
+    private static final String WRITE_COOKIE_SET = ReplicaRoutingDataSource.class.getName() + ".WRITE_COOKIE_SET";
+    private static final String COOKIE_MAC = "HmacSHA256";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration readYourWritesWindow;
+    private final SecretKeySpec writeCookieKey;
+    private final Cache<Long, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, Duration readYourWritesWindow,
+                                    String readYourWritesSecret) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.writeCookieKey = readYourWritesSecret == null || readYourWritesSecret.isBlank() ? null
+                : new SecretKeySpec(readYourWritesSecret.getBytes(StandardCharsets.UTF_8), COOKIE_MAC);
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        checkHealth();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+            return source.open(primary);
+        }
+        if (RequestContextHolder.getRequestAttributes() == null || wroteRecently()) {
+            return source.open(primary);
+        }
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = source.open(replica.dataSource);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLFeatureNotSupportedException e) {
+                // Hikari pools only hand out connections with their configured credentials
+                throw e;
+            } catch (SQLException e) {
+                failovers.increment();
+                if (isUnreachable(e)) {
+                    replica.healthy = false;
+                    log.warn("Replica {} is unavailable, taking it out of rotation", replica.dataSource.getPoolName(), e);
+                } else {
+                    log.debug("Replica {} has no free connection, reading elsewhere", replica.dataSource.getPoolName());
+                }
+            }
+        }
+        return source.open(primary);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval:PT5S}",
+            initialDelayString = "${app.datasource.replicas.health-check-interval:PT5S}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is {}", replica.dataSource.getPoolName(), healthy ? "back in rotation" : "down");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    public long replicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long failovers() {
+        return failovers.sum();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private void recordWrite() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return;
+        }
+        recentWriters.put(userId, Boolean.TRUE);
+
+        if (writeCookieKey != null && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            HttpServletResponse response = attributes.getResponse();
+            if (response != null && !response.isCommitted() && request.getAttribute(WRITE_COOKIE_SET) == null) {
+                request.setAttribute(WRITE_COOKIE_SET, Boolean.TRUE);
+                long until = System.currentTimeMillis() + readYourWritesWindow.toMillis();
+                ResponseCookie cookie = ResponseCookie.from(WRITE_COOKIE, until + "." + sign(userId, until))
+                        .maxAge(readYourWritesWindow)
+                        .path("/")
+                        .httpOnly(true)
+                        .secure(request.isSecure())
+                        .sameSite("Lax")
+                        .build();
+                response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            }
+        }
+    }
+
+    private boolean wroteRecently() {
+        Long userId = currentUserId();
+        if (userId == null) {
+            return false;
+        }
+        return recentWriters.getIfPresent(userId) != null || writeCookieValid(userId);
+    }
+
+    /**
+     * Whether the request carries this user's write made within the window,
+     * possibly on another node. The deadline is covered by the signature, and one
+     * further ahead than a window is ignored.
+     */
+    private boolean writeCookieValid(Long userId) {
+        if (writeCookieKey == null
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        Cookie cookie = WebUtils.getCookie(attributes.getRequest(), WRITE_COOKIE);
+        if (cookie == null) {
+            return false;
+        }
+        String[] parts = cookie.getValue().split("\\.", 2);
+        try {
+            long until = Long.parseLong(parts[0]);
+            long now = System.currentTimeMillis();
+            return parts.length == 2
+                    && until > now && until <= now + readYourWritesWindow.toMillis()
+                    && MessageDigest.isEqual(sign(userId, until).getBytes(StandardCharsets.US_ASCII),
+                    parts[1].getBytes(StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(Long userId, long until) {
+        try {
+            Mac mac = Mac.getInstance(COOKIE_MAC);
+            mac.init(writeCookieKey);
+            byte[] signature = mac.doFinal((userId + ":" + until).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign the read-your-writes cookie", e);
+        }
+    }
+
+    /**
+     * Whether a failed connection attempt means the replica cannot be reached.
+     * Hikari reports a busy pool as a {@link SQLTransientConnectionException}
+     * without a cause; when it could not connect, the driver's failure is the cause.
+     */
+    private static boolean isUnreachable(SQLException e) {
+        return !(e instanceof SQLTransientConnectionException) || e.getCause() != null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                ? principal.getId() : null;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
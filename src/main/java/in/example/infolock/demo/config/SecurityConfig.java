@@ -3,18 +3,25 @@ package in.example.infolock.demo.config;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -30,6 +37,45 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    /**
+     * Actuator endpoints other than health expose operational data, so they need
+     * the ops account (HTTP Basic, for Prometheus scrapers). Without a configured
+     * password they are closed.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(
+            HttpSecurity http,
+            @Value("${app.management.username:ops}") String username,
+            @Value("${app.management.password:}") String password) throws Exception {
+        boolean opsEnabled = !password.isBlank();
+        DaoAuthenticationProvider opsProvider = new DaoAuthenticationProvider();
+        opsProvider.setUserDetailsService(opsEnabled
+                ? new InMemoryUserDetailsManager(User.withUsername(username)
+                        .password(passwordEncoder().encode(password))
+                        .roles("OPS")
+                        .build())
+                : new InMemoryUserDetailsManager());
+        opsProvider.setPasswordEncoder(passwordEncoder());
+
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .authorizeHttpRequests(authz -> {
+                    authz.requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll();
+                    if (opsEnabled) {
+                        authz.anyRequest().hasRole("OPS");
+                    } else {
+                        authz.anyRequest().denyAll();
+                    }
+                })
+                .authenticationManager(new ProviderManager(List.of(opsProvider)))
+                .httpBasic(Customizer.withDefaults())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -13,9 +13,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import in.example.infolock.demo.dto.ChangePasswordRequest;
 import in.example.infolock.demo.entity.UserEntity;
 
 import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.TokenCache;
+import io.jsonwebtoken.JwtException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -33,6 +36,9 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenCache tokenCache;
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody UserEntity user) {
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -71,4 +77,40 @@ public class AuthController {
         }
 
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            try {
+                tokenCache.revoke(token, jwtUtil.parseClaims(token));
+            } catch (JwtException e) {
+                // Invalid or expired tokens are already unusable
+            }
+        }
+        return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
+    }
+
+    @PostMapping("/change-password")
+    public ResponseEntity<Map<String, String>> changePassword(@RequestBody ChangePasswordRequest request) {
+        if (request.getNewPassword() == null || request.getNewPassword().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "New password is required"));
+        }
+
+        try {
+            authManager.authenticate(new UsernamePasswordAuthenticationToken(request.getEmail(), request.getCurrentPassword()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error","Invalid username or password"));
+        }
+
+        UserEntity user = userRepository.findByEmail(request.getEmail()).orElseThrow();
+        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        // Tokens issued with the old password stop working, on every node and across restarts
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        tokenCache.invalidateUser(user.getEmail());
+
+        return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
+    }
 }
\ No newline at end of file
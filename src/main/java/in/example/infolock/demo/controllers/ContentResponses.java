@@ -0,0 +1,83 @@
+package in.example.infolock.demo.controllers;
+
+import in.example.infolock.demo.dto.DocumentContent;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Locale;
+
+/**
+ * Builds streamed document responses. Conditional GET and Range requests are
+ * answered by Spring from the ETag and the Resource body. The ETag is the
+ * content key, which changes whenever the bytes do; there is no Last-Modified
+ * because no persisted timestamp follows content replacement.
+ * Compressed documents are sent as stored, with Content-Encoding, to clients
+ * that accept it.
+ */
+final class ContentResponses {
+
+    private ContentResponses() {
+    }
+
+    static ResponseEntity<Resource> build(DocumentContent content, String contentDisposition,
+                                          MediaType contentType, HttpServletRequest request) {
+        boolean encoded = sendEncoded(content, request);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition)
+                .eTag(etag(content, encoded))
+                .contentType(contentType);
+
+        if (content.getEncodedContent() == null) {
+            return builder.body(content.getContent());
+        }
+        builder.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (encoded) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, content.getContentEncoding())
+                    .body(content.getEncodedContent());
+        }
+        return builder.body(content.getContent());
+    }
+
+    /**
+     * Stored bytes are passed through only for whole-body requests, so ranges
+     * always refer to the original content.
+     */
+    static boolean sendEncoded(DocumentContent content, HttpServletRequest request) {
+        return sendEncoded(content.getContentEncoding(), request);
+    }
+
+    static boolean sendEncoded(String contentEncoding, HttpServletRequest request) {
+        return contentEncoding != null
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), contentEncoding);
+    }
+
+    static String etag(DocumentContent content, boolean encoded) {
+        return etag(content.getContentKey(), content.getContentEncoding(), encoded);
+    }
+
+    /**
+     * Needs only document metadata, so a request can be revalidated before its
+     * content is opened. Strong ETags must differ per representation, so the
+     * decoded form of compressed content gets a suffix.
+     */
+    static String etag(String contentKey, String contentEncoding, boolean encoded) {
+        return contentEncoding == null || encoded ? contentKey : contentKey + "-identity";
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = token.trim().split(";");
+            if (parts[0].trim().equals(encoding)) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
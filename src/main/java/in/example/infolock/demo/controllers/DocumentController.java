@@ -1,20 +1,41 @@
 package in.example.infolock.demo.controllers;
 
+import in.example.infolock.demo.dto.DocumentContent;
 import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.DocumentPage;
+import in.example.infolock.demo.entity.Document;
 import in.example.infolock.demo.exception.DocumentNotFoundException;
+import in.example.infolock.demo.exception.InvalidBatchRequestException;
 import in.example.infolock.demo.exception.InvalidFileException;
+import in.example.infolock.demo.exception.InvalidPageRequestException;
+import in.example.infolock.demo.exception.UploadTooLargeException;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.BulkDocumentService;
+import in.example.infolock.demo.service.DocumentSearchService;
 import in.example.infolock.demo.service.DocumentService;
+import in.example.infolock.demo.service.ThumbnailService;
+import in.example.infolock.demo.storage.BoundedInputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -23,74 +44,138 @@ import java.util.List;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final BulkDocumentService bulkDocumentService;
+    private final DocumentSearchService documentSearchService;
+    private final ThumbnailService thumbnailService;
+
+    @Value("${app.uploads.max-file-size:5GB}")
+    private DataSize maxUploadSize;
 
     @PostMapping("/upload")
     public ResponseEntity<DocumentDTO> uploadDocument(
             @RequestParam("file") MultipartFile file,
             @RequestParam("category") String category,
             @RequestParam("filename") String filename,
-            Authentication authentication) throws IOException {
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
 
         if (file.isEmpty()) {
             throw new InvalidFileException("File cannot be empty");
         }
 
-        String username = authentication.getName();
-        DocumentDTO dto = documentService.uploadDocument(file, category, filename, username);
+        Long userId = principal.getId();
+        DocumentDTO dto = documentService.uploadDocument(file, category, filename, userId);
+        return ResponseEntity.ok(dto);
+    }
+
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<DocumentDTO>> uploadDocuments(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("category") String category,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+
+        Long userId = principal.getId();
+        List<DocumentDTO> documents = bulkDocumentService.uploadDocuments(files, category, userId);
+        return ResponseEntity.ok(documents);
+    }
+
+    /**
+     * Raw-body upload: the request stream is hashed and written to storage in a
+     * single pass, without the container spooling a multipart copy first. The
+     * body is capped at app.uploads.max-file-size as it is read.
+     */
+    @PostMapping(value = "/upload/stream", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<DocumentDTO> uploadDocumentStream(
+            @RequestParam("category") String category,
+            @RequestParam("filename") String filename,
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+
+        long limit = maxUploadSize.toBytes();
+        if (request.getContentLengthLong() > limit) {
+            throw new UploadTooLargeException("Upload exceeds the maximum size of " + limit + " bytes");
+        }
+
+        // The body is raw bytes, so a client that does not label it gets the generic binary type
+        String contentType = StringUtils.hasText(request.getContentType()) ?
+                request.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        Long userId = principal.getId();
+        DocumentDTO dto = documentService.uploadDocument(new BoundedInputStream(request.getInputStream(), limit),
+                contentType, category, filename, userId);
         return ResponseEntity.ok(dto);
     }
 
     @GetMapping
-    public ResponseEntity<List<DocumentDTO>> getUserDocuments(Authentication authentication) {
-        String username = authentication.getName();
-        List<DocumentDTO> documents = documentService.getUserDocuments(username);
+    public ResponseEntity<List<DocumentDTO>> getUserDocuments(@AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        List<DocumentDTO> documents = documentService.getUserDocuments(userId);
+        return ResponseEntity.ok(documents);
+    }
+
+    /**
+     * Cursor-paginated listing. Pass the returned nextCursor back to fetch the
+     * following page; cursors stay stable while documents are added or removed.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<DocumentPage> getUserDocumentPage(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "sort", defaultValue = "newest") String sort,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        DocumentPage page = documentService.getUserDocumentPage(userId, category, sort, limit, cursor);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Full-text search over file names, categories and extracted PDF, DOCX and
+     * text content. Supports quoted phrases, {@code -term} and {@code prefix*}.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<DocumentDTO>> searchDocuments(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        List<DocumentDTO> documents = documentSearchService.search(userId, query, limit);
         return ResponseEntity.ok(documents);
     }
 
     @GetMapping("/category/{category}")
     public ResponseEntity<List<DocumentDTO>> getUserDocumentsByCategory(
             @PathVariable String category,
-            Authentication authentication) {
-        String username = authentication.getName();
-        List<DocumentDTO> documents = documentService.getUserDocumentsByCategory(username, category);
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        List<DocumentDTO> documents = documentService.getUserDocumentsByCategory(userId, category);
         return ResponseEntity.ok(documents);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DocumentDTO> getDocumentById(
             @PathVariable Long id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        DocumentDTO document = documentService.getDocumentById(id, username);
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        DocumentDTO document = documentService.getDocumentById(id, userId);
         return ResponseEntity.ok(document);
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<byte[]> downloadUserDocument(
+    public ResponseEntity<Resource> downloadUserDocument(
             @PathVariable Long id,
-            Authentication authentication) {
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            byte[] fileData = documentService.downloadUserDocument(id, username);
-            DocumentDTO document = documentService.getDocumentById(id, username);
+            Long userId = principal.getId();
+            DocumentContent content = documentService.downloadUserDocument(id, userId);
+            DocumentDTO document = content.getDocument();
 
-            if (fileData == null || fileData.length == 0) {
+            if (document.getFileSize() == null || document.getFileSize() == 0) {
                 return ResponseEntity.noContent().build();
             }
 
             String fileName = sanitizeFilename(document.getFileName());
-            MediaType contentType = MediaType.parseMediaType(
-                    StringUtils.hasText(document.getFileType()) ?
-                            document.getFileType() :
-                            "application/octet-stream"
-            );
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + fileName + "\"")
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileData.length))
-                    .contentType(contentType)
-                    .body(fileData);
+            return ContentResponses.build(content,
+                    "attachment; filename=\"" + fileName + "\"", contentType(document), request);
 
         } catch (DocumentNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -99,39 +184,84 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Small JPEG preview for document lists. Responds 404 for types without a
+     * preview and while the preview is still being rendered.
+     */
+    @GetMapping("/{id}/thumbnail")
+    public ResponseEntity<byte[]> getThumbnail(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        try {
+            Long userId = principal.getId();
+            return thumbnailService.getThumbnail(id, userId)
+                    .map(thumbnail -> ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_JPEG)
+                            .eTag(thumbnail.getContentKey() + "-thumbnail")
+                            // Content never changes under a content key, only the document's key does
+                            .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                            .body(thumbnail.getImage()))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (DocumentNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDocument(
             @PathVariable Long id,
-            Authentication authentication) {
-        String username = authentication.getName();
-        documentService.deleteDocument(id, username);
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        documentService.deleteDocument(id, userId);
         return ResponseEntity.noContent().build();
     }
 
+    @DeleteMapping
+    public ResponseEntity<Map<String, Integer>> deleteDocuments(
+            @RequestParam("ids") List<Long> ids,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        int deleted = bulkDocumentService.deleteDocuments(ids, userId);
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+
+    /**
+     * Streams the selected documents, or a whole category, as one ZIP file.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<StreamingResponseBody> downloadArchive(
+            @RequestParam(value = "ids", required = false) List<Long> ids,
+            @RequestParam(value = "category", required = false) String category,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        List<Document> documents = bulkDocumentService.findForArchive(userId, ids, category);
+        if (documents.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String fileName = sanitizeFilename(StringUtils.hasText(category) ? category : "documents") + ".zip";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(out -> bulkDocumentService.writeArchive(documents, out));
+    }
+
     @GetMapping("/view/{id}")
-    public ResponseEntity<byte[]> viewDocument(
+    public ResponseEntity<Resource> viewDocument(
             @PathVariable Long id,
-            Authentication authentication) {
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
         try {
-            String username = authentication.getName();
-            byte[] fileData = documentService.downloadUserDocument(id, username);
-            DocumentDTO document = documentService.getDocumentById(id, username);
+            Long userId = principal.getId();
+            DocumentContent content = documentService.downloadUserDocument(id, userId);
+            DocumentDTO document = content.getDocument();
 
-            if (fileData == null || fileData.length == 0) {
+            if (document.getFileSize() == null || document.getFileSize() == 0) {
                 return ResponseEntity.noContent().build();
             }
 
-            MediaType contentType = MediaType.parseMediaType(
-                    StringUtils.hasText(document.getFileType()) ?
-                            document.getFileType() :
-                            "application/octet-stream"
-            );
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline") // Let browser handle display
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileData.length))
-                    .contentType(contentType)
-                    .body(fileData);
+            // Let browser handle display
+            return ContentResponses.build(content, "inline", contentType(document), request);
 
         } catch (DocumentNotFoundException e) {
             return ResponseEntity.notFound().build();
@@ -145,13 +275,45 @@ public class DocumentController {
             @RequestParam(value = "file", required = false) MultipartFile file,
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "filename", required = false) String filename,
-            Authentication authentication) throws IOException {
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
 
-        String username = authentication.getName();
-        DocumentDTO updatedDoc = documentService.updateDocument(id, file, category, filename, username);
+        Long userId = principal.getId();
+        DocumentDTO updatedDoc = documentService.updateDocument(id, file, category, filename, userId);
         return ResponseEntity.ok(updatedDoc);
     }
 
+    @ExceptionHandler(InvalidBatchRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidBatchRequest(InvalidBatchRequestException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "INVALID_BATCH_REQUEST");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidPageRequest(InvalidPageRequestException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "INVALID_PAGE_REQUEST");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<Map<String, String>> handleUploadTooLarge(UploadTooLargeException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "UPLOAD_TOO_LARGE");
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
+    }
+
+    private MediaType contentType(DocumentDTO document) {
+        return MediaType.parseMediaType(
+                StringUtils.hasText(document.getFileType()) ?
+                        document.getFileType() :
+                        "application/octet-stream"
+        );
+    }
+
     private String sanitizeFilename(String filename) {
         if (!StringUtils.hasText(filename)) {
             return "document_" + System.currentTimeMillis();
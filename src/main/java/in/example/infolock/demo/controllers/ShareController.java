@@ -1,15 +1,26 @@
 package in.example.infolock.demo.controllers;
 
+import in.example.infolock.demo.dto.DocumentContent;
 import in.example.infolock.demo.dto.ShareRequest;
 import in.example.infolock.demo.dto.ShareResponse;
 import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.DocumentService;
 import in.example.infolock.demo.service.ShareService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -21,14 +32,26 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ShareController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     private final ShareService shareService;
+    private final DocumentService documentService;
 
     @PostMapping("/share")
     public ResponseEntity<?> createShareLink(
             @RequestBody ShareRequest shareRequest,
-            Authentication authentication) {
-        String username = authentication.getName();
-        if (!shareService.isDocumentOwner(shareRequest.getDocumentId(), username)) {
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "INVALID_IDEMPOTENCY_KEY");
+            errorResponse.put("message", IDEMPOTENCY_KEY + " must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        Long userId = principal.getId();
+        if (!shareService.isDocumentOwner(shareRequest.getDocumentId(), userId)) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "FORBIDDEN");
             errorResponse.put("message", "You do not have permission to share this document");
@@ -36,7 +59,8 @@ public class ShareController {
         }
 
         try {
-            ShareResponse response = shareService.createShareLink(shareRequest);
+            // Retries carrying the same key get the link the first attempt created
+            ShareResponse response = shareService.createShareLink(shareRequest, idempotencyKey);
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             Map<String, String> errorResponse = new HashMap<>();
@@ -48,22 +72,35 @@ public class ShareController {
     }
 
     @GetMapping("/share/{token}")
-    public void viewSharedDocument(
+    public ResponseEntity<Resource> viewSharedDocument(
             @PathVariable String token,
+            ServletWebRequest request,
             HttpServletResponse response) throws IOException {
-        Optional<Document> document = shareService.getDocumentByToken(token);
+        Optional<ShareLink> shareLink = shareService.findViewableLink(token);
+
+        if (shareLink.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Shared document not found or expired");
+            return null;
+        }
 
-        if (document.isEmpty()) {
+        Document doc = shareLink.get().getDocument();
+        HttpServletRequest servletRequest = request.getRequest();
+        String etag = ContentResponses.etag(doc.getContentKey(), doc.getContentEncoding(),
+                ContentResponses.sendEncoded(doc.getContentEncoding(), servletRequest));
+
+        // A revalidation carries no content, so it belongs to a view that was already counted
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (opensDocument(servletRequest, doc) && !shareService.admitView(shareLink.get())) {
             response.sendError(HttpServletResponse.SC_NOT_FOUND, "Shared document not found or expired");
-            return;
+            return null;
         }
 
-        Document doc = document.get();
-        response.setContentType(getContentType(doc.getFileType()));
-        response.setHeader("Content-Disposition", "inline; filename=\"" + doc.getFileName() + "\"");
-        response.setContentLengthLong(doc.getFileData().length);
-        response.getOutputStream().write(doc.getFileData());
-        response.getOutputStream().flush();
+        // Opened only once the view is admitted, since it counts the download and marks the document accessed
+        DocumentContent content = documentService.toSharedContent(doc);
+        return ContentResponses.build(content, "inline; filename=\"" + doc.getFileName() + "\"",
+                MediaType.parseMediaType(getContentType(doc.getFileType())), servletRequest);
     }
 
     @DeleteMapping("/share/{token}")
@@ -84,9 +121,9 @@ public class ShareController {
     public ResponseEntity<?> toggleDocumentPublic(
             @PathVariable Long documentId,
             @RequestBody Map<String, Boolean> request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        if (!shareService.isDocumentOwner(documentId, username)) {
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        if (!shareService.isDocumentOwner(documentId, userId)) {
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", "FORBIDDEN");
             errorResponse.put("message", "You do not have permission to modify this document");
@@ -105,6 +142,26 @@ public class ShareController {
         }
     }
 
+    /**
+     * Whether a request starts a view: it asks for the whole document or for a
+     * range from its first byte. PDF viewers and media players fetch many further
+     * ranges while one document is open, and those are not counted, so a limited
+     * link is not used up partway through its first view.
+     */
+    private boolean opensDocument(HttpServletRequest request, Document doc) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || doc.getFileSize() == null) {
+            return true;
+        }
+        try {
+            return HttpRange.parseRanges(range).stream()
+                    .anyMatch(r -> r.getRangeStart(doc.getFileSize()) == 0);
+        } catch (IllegalArgumentException e) {
+            // Answered with the whole document or an error, so counted like a plain request
+            return true;
+        }
+    }
+
     private String getContentType(String fileType) {
         return switch (fileType.toLowerCase()) {
             case "pdf" -> "application/pdf";
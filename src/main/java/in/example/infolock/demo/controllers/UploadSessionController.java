@@ -0,0 +1,99 @@
+package in.example.infolock.demo.controllers;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.UploadPartDTO;
+import in.example.infolock.demo.dto.UploadSessionRequest;
+import in.example.infolock.demo.dto.UploadSessionResponse;
+import in.example.infolock.demo.exception.InvalidFileException;
+import in.example.infolock.demo.exception.UploadSessionNotFoundException;
+import in.example.infolock.demo.exception.UploadTooLargeException;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/documents/uploads")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(
+            @RequestBody UploadSessionRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        Long userId = principal.getId();
+        return ResponseEntity.ok(uploadSessionService.createSession(request, userId));
+    }
+
+    @PutMapping(value = "/{sessionId}/parts/{partNumber}", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<UploadPartDTO> uploadPart(
+            @PathVariable String sessionId,
+            @PathVariable int partNumber,
+            @RequestHeader(value = "X-Content-SHA256", required = false) String sha256,
+            HttpServletRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        Long userId = principal.getId();
+        UploadPartDTO part = uploadSessionService.uploadPart(
+                sessionId, partNumber, request.getInputStream(), sha256, userId);
+        return ResponseEntity.ok(part);
+    }
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<UploadSessionResponse> getSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        Long userId = principal.getId();
+        return ResponseEntity.ok(uploadSessionService.getSession(sessionId, userId));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    public ResponseEntity<DocumentDTO> completeSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        Long userId = principal.getId();
+        return ResponseEntity.ok(uploadSessionService.completeSession(sessionId, userId));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> abortSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        Long userId = principal.getId();
+        uploadSessionService.abortSession(sessionId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(UploadSessionNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleNotFound(UploadSessionNotFoundException e) {
+        return error(HttpStatus.NOT_FOUND, "NOT_FOUND", e.getMessage());
+    }
+
+    @ExceptionHandler(InvalidFileException.class)
+    public ResponseEntity<Map<String, String>> handleInvalid(InvalidFileException e) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_UPLOAD", e.getMessage());
+    }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<Map<String, String>> handleTooLarge(UploadTooLargeException e) {
+        return error(HttpStatus.PAYLOAD_TOO_LARGE, "UPLOAD_TOO_LARGE", e.getMessage());
+    }
+
+    private ResponseEntity<Map<String, String>> error(HttpStatus status, String error, String message) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", error);
+        errorResponse.put("message", message);
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+}
@@ -0,0 +1,14 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePasswordRequest {
+    private String email;
+    private String currentPassword;
+    private String newPassword;
+}
@@ -0,0 +1,18 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.core.io.Resource;
+
+/**
+ * Document metadata together with a lazily opened handle on its payload.
+ */
+@Data
+@AllArgsConstructor
+public class DocumentContent {
+    private DocumentDTO document;
+    private Resource content;         // Original bytes, decoded on the fly if needed
+    private String contentKey;
+    private String contentEncoding;   // Encoding of the stored bytes, null if stored as-is
+    private Resource encodedContent;  // Stored bytes without decoding, null if stored as-is
+}
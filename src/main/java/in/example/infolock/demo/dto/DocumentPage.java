@@ -0,0 +1,18 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DocumentPage {
+    private List<DocumentDTO> documents;
+    private String nextCursor;   // Pass back as ?cursor= for the next page, null on the last page
+    private boolean hasMore;
+}
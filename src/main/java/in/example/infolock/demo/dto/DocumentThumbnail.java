@@ -0,0 +1,14 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * JPEG preview of a document, with the content key it was rendered from.
+ */
+@Data
+@AllArgsConstructor
+public class DocumentThumbnail {
+    private String contentKey;
+    private byte[] image;
+}
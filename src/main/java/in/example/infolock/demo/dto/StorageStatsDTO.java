@@ -0,0 +1,21 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StorageStatsDTO {
+    private Long documentCount;
+    private Long blobCount;
+    private Long logicalBytes;   // Sum of document sizes as seen by users
+    private Long uniqueBytes;    // Original size of each distinct content, counted once
+    private Long physicalBytes;  // Bytes actually held in the blob store, after compression
+    private Long bytesSaved;
+    private Double dedupRatio;   // logicalBytes / uniqueBytes
+    private Double compressionRatio; // uniqueBytes / physicalBytes
+}
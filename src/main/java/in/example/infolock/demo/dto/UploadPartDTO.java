@@ -0,0 +1,14 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPartDTO {
+    private Integer partNumber;
+    private Long size;
+    private String sha256;
+}
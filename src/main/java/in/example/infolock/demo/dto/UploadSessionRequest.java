@@ -0,0 +1,16 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+    private String fileName;
+    private String fileType;
+    private String category;
+    private Long totalSize;     // Optional: verified on completion
+    private Integer totalParts; // Optional: verified on completion
+}
@@ -0,0 +1,23 @@
+package in.example.infolock.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessionResponse {
+    private String sessionId;
+    private String fileName;
+    private Long totalSize;
+    private Integer totalParts;
+    private List<UploadPartDTO> receivedParts;
+    private LocalDateTime createdDate;
+    private LocalDateTime expiryDate;
+}
@@ -0,0 +1,41 @@
+package in.example.infolock.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reference-counted physical payload in the BlobStore. Several documents that
+ * upload the same bytes share one row here and one stored blob.
+ */
+@Entity
+@Table(name = "content_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentBlob {
+
+    @Id
+    @Column(length = 64)
+    private String contentKey;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Long refCount;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    // True once the payload has moved from the hot tier into an archive segment
+    @Builder.Default
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private Boolean archived = false;
+}
@@ -7,7 +7,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_user_upload", columnList = "user_id, upload_date, id"),
+        @Index(name = "idx_documents_user_category_upload", columnList = "user_id, category, upload_date"),
+        @Index(name = "idx_documents_content_key", columnList = "content_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,7 +42,14 @@ public class Document {
     @Column(updatable = false)
     private LocalDateTime uploadDate;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB", nullable = false)
-    private byte[] fileData;
+    // SHA-256 of the payload in the BlobStore
+    @Column(length = 64)
+    private String contentKey;
+
+    // How the stored bytes are encoded (e.g. "gzip"); null when stored as uploaded
+    @Column(length = 16)
+    private String contentEncoding;
+
+    // Last time the content was downloaded or viewed; null if never read since upload
+    private LocalDateTime lastAccessDate;
 }
\ No newline at end of file
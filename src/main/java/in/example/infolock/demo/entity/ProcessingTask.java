@@ -0,0 +1,56 @@
+package in.example.infolock.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row asking for one processing stage to run on one document. Rows are
+ * written in the same transaction as the document change and deleted once the
+ * stage succeeds, so only outstanding and failed work is kept.
+ */
+@Entity
+@Table(name = "processing_tasks", indexes = {
+        @Index(name = "idx_processing_tasks_status_due", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessingTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Not a foreign key: the document may be deleted while work is outstanding
+    @Column(nullable = false)
+    private Long documentId;
+
+    @Column(nullable = false, length = 64)
+    private String stage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // When a pending task becomes due, or when the lease of a running one expires
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    public enum Status {
+        PENDING, RUNNING, FAILED
+    }
+}
@@ -0,0 +1,28 @@
+package in.example.infolock.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A logged-out token, kept until it would have expired anyway. Stored by
+ * SHA-256 so the table never holds a usable credential.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expiry", columnList = "expiry_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private LocalDateTime expiryDate;
+}
@@ -7,7 +7,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "share_links")
+@Table(name = "share_links", indexes = {
+        @Index(name = "idx_share_links_document_public", columnList = "document_id, is_public"),
+        @Index(name = "idx_share_links_expiry", columnList = "expiry_date"),
+        @Index(name = "idx_share_links_active_expiry", columnList = "is_active, expiry_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_share_links_public_document", columnNames = "public_document_id"),
+        @UniqueConstraint(name = "uk_share_links_document_idempotency", columnNames = {"document_id", "idempotency_key"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,4 +50,22 @@ public class ShareLink {
 
     @Column(nullable = false)
     private Boolean isPublic = false;
+
+    // Client-supplied key of the create request, so a retried request finds this link instead of adding one
+    @Column(length = 64)
+    private String idempotencyKey;
+
+    /*
+     * The document id while this is its active public link, null otherwise. MySQL
+     * has no partial unique indexes, but a unique column may hold any number of
+     * NULLs, so the unique key on this column allows one public link per document.
+     */
+    private Long publicDocumentId;
+
+    @PrePersist
+    @PreUpdate
+    void updatePublicDocumentId() {
+        publicDocumentId = Boolean.TRUE.equals(isPublic) && Boolean.TRUE.equals(isActive) && document != null
+                ? document.getId() : null;
+    }
 }
\ No newline at end of file
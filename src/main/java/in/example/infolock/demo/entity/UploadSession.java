@@ -0,0 +1,51 @@
+package in.example.infolock.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserEntity user;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column
+    private String fileType;
+
+    @Column(nullable = false)
+    private String category;
+
+    // Optional, used to validate the assembled upload when the client declares them
+    @Column
+    private Long totalSize;
+
+    @Column
+    private Integer totalParts;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdDate;
+
+    @Column(nullable = false)
+    private LocalDateTime lastActivity;
+
+    // Set while a completion is assembling the parts; cleared again if it fails
+    @Column
+    private LocalDateTime completingSince;
+}
@@ -9,6 +9,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +22,7 @@ import java.util.List;
 @Data
 @Builder
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class UserEntity {
 
     @Id
@@ -34,6 +38,12 @@ public class UserEntity {
     @Column(nullable = false, unique = true)
     private String email;
 
+    // Carried in each JWT; bumping it rejects every token issued before, on every node
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion = 0;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Document> documents = new ArrayList<>();
 
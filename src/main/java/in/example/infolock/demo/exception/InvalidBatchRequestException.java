@@ -0,0 +1,7 @@
+package in.example.infolock.demo.exception;
+
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package in.example.infolock.demo.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package in.example.infolock.demo.exception;
+
+public class SearchException extends RuntimeException {
+    public SearchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
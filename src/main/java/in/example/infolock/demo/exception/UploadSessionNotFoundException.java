@@ -0,0 +1,7 @@
+package in.example.infolock.demo.exception;
+
+public class UploadSessionNotFoundException extends RuntimeException {
+    public UploadSessionNotFoundException(String message) {
+        super(message);
+    }
+}
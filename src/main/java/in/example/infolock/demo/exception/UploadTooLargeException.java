@@ -0,0 +1,7 @@
+package in.example.infolock.demo.exception;
+
+public class UploadTooLargeException extends RuntimeException {
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,79 @@
+package in.example.infolock.demo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every SQL statement, counts the statements issued per HTTP request and
+ * logs a sample of the slow ones. Statements are reported by
+ * {@link QueryMetricsDataSource}; requests are delimited by {@link QueryCountFilter}.
+ *
+ * Slow statements are logged with their duration and SQL as key-value pairs, so a
+ * structured log format picks them up as fields. Only a share of them is logged,
+ * which keeps a slow database from flooding the log; all of them are counted.
+ */
+@Slf4j
+@Component
+public class QueryMetrics {
+
+    private final Timer queryTimer;
+    private final Counter slowQueries;
+    private final long slowThresholdNanos;
+    private final double logSampleRate;
+
+    // Statements issued so far by the request on this thread, absent outside requests
+    private final ThreadLocal<int[]> requestStatements = new ThreadLocal<>();
+
+    public QueryMetrics(MeterRegistry meterRegistry,
+                        @Value("${app.db.slow-query-threshold:PT0.2S}") Duration slowQueryThreshold,
+                        @Value("${app.db.slow-query-log-sample-rate:0.1}") double logSampleRate) {
+        this.slowThresholdNanos = slowQueryThreshold.toNanos();
+        this.logSampleRate = logSampleRate;
+        this.queryTimer = Timer.builder("infolock.db.query.duration")
+                .description("Time to execute one SQL statement")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.slowQueries = Counter.builder("infolock.db.query.slow")
+                .description("Statements slower than the slow-query threshold")
+                .register(meterRegistry);
+    }
+
+    public void record(String sql, long nanos) {
+        queryTimer.record(nanos, TimeUnit.NANOSECONDS);
+        int[] statements = requestStatements.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        if (nanos >= slowThresholdNanos) {
+            slowQueries.increment();
+            if (ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+                log.atWarn()
+                        .addKeyValue("durationMs", millis)
+                        .addKeyValue("sql", sql)
+                        .log("Slow query took {} ms: {}", millis, sql);
+            }
+        }
+    }
+
+    void beginRequest() {
+        requestStatements.set(new int[1]);
+    }
+
+    /**
+     * Returns the number of statements issued since {@link #beginRequest()}.
+     */
+    int endRequest() {
+        int[] statements = requestStatements.get();
+        requestStatements.remove();
+        return statements == null ? 0 : statements[0];
+    }
+}
@@ -0,0 +1,86 @@
+package in.example.infolock.demo.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Reports the execution time of every statement run through the wrapped
+ * DataSource to {@link QueryMetrics}. Connections and statements are JDK proxies
+ * that only add timing around the {@code execute*} calls; everything else goes
+ * straight to the driver.
+ */
+class QueryMetricsDataSource extends DelegatingDataSource {
+
+    private final Supplier<QueryMetrics> queryMetrics;
+
+    QueryMetricsDataSource(DataSource target, Supplier<QueryMetrics> queryMetrics) {
+        super(target);
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> wrap(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> wrap(PreparedStatement.class, (PreparedStatement) result, (String) args[0]);
+                case "prepareCall" -> wrap(CallableStatement.class, (CallableStatement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    private <S extends Statement> S wrap(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                queryMetrics.get().record(sql, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryMetricsDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package in.example.infolock.demo.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a {@link QueryMetricsDataSource}.
+ * {@link QueryMetrics} is resolved on first use, so the meter registry is not
+ * created ahead of its own post-processors.
+ */
+@Component
+public class QueryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryMetrics> queryMetrics;
+
+    public QueryMetricsPostProcessor(ObjectProvider<QueryMetrics> queryMetrics) {
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return new QueryMetricsDataSource(dataSource, SingletonSupplier.of(queryMetrics::getObject));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,25 @@
+package in.example.infolock.demo.metrics;
+
+import in.example.infolock.demo.dto.StorageStatsDTO;
+import in.example.infolock.demo.service.StorageStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deduplication totals across all users, at {@code /actuator/storage}. They are
+ * operational data, so they sit behind the ops account rather than the user API.
+ */
+@Component
+@Endpoint(id = "storage")
+@RequiredArgsConstructor
+public class StorageStatsEndpoint {
+
+    private final StorageStatsService storageStatsService;
+
+    @ReadOperation
+    public StorageStatsDTO stats() {
+        return storageStatsService.getStats();
+    }
+}
@@ -0,0 +1,46 @@
+package in.example.infolock.demo.processing;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.storage.BlobStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Re-reads the stored blob and checks it still hashes to its content key, so a
+ * truncated or corrupted write is caught soon after upload rather than on the
+ * first download.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentVerificationStage implements ProcessingStage {
+
+    private final BlobStore blobStore;
+
+    @Override
+    public String name() {
+        return "verify-content";
+    }
+
+    @Override
+    public void process(Document document) throws Exception {
+        String key = document.getContentKey();
+        if (key == null) {
+            return;
+        }
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(blobStore.open(key), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equals(key)) {
+            throw new IOException("Blob " + key + " is corrupt, content hashes to " + actual);
+        }
+    }
+}
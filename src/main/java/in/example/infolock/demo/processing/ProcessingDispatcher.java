@@ -0,0 +1,202 @@
+package in.example.infolock.demo.processing;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ProcessingTask;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ProcessingTaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs outstanding {@link ProcessingTask}s on a fixed pool of worker threads.
+ *
+ * Each poll claims at most as many due tasks as there are idle workers, so a
+ * backlog stays in the table rather than in memory, and several instances can
+ * share the table safely. A claim is a lease: if a worker dies mid-run the task
+ * becomes pending again once the lease expires. Failures are retried with
+ * exponential backoff until {@code app.processing.max-attempts}, then the task
+ * is parked as FAILED with its last error for inspection.
+ */
+@Slf4j
+@Component
+public class ProcessingDispatcher {
+
+    private final ProcessingTaskRepository processingTaskRepository;
+    private final DocumentRepository documentRepository;
+    private final Map<String, ProcessingStage> stages;
+    private final MeterRegistry meterRegistry;
+    private final Executor workers;
+    private final Semaphore idleWorkers;
+
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration lease;
+
+    public ProcessingDispatcher(ProcessingTaskRepository processingTaskRepository,
+                                DocumentRepository documentRepository,
+                                List<ProcessingStage> stages,
+                                MeterRegistry meterRegistry,
+                                Environment environment,
+                                @Value("${app.processing.concurrency:4}") int concurrency,
+                                @Value("${app.processing.max-attempts:5}") int maxAttempts,
+                                @Value("${app.processing.retry-backoff:PT10S}") Duration retryBackoff,
+                                @Value("${app.processing.max-retry-backoff:PT30M}") Duration maxRetryBackoff,
+                                @Value("${app.processing.lease:PT15M}") Duration lease) {
+        this.processingTaskRepository = processingTaskRepository;
+        this.documentRepository = documentRepository;
+        this.stages = stages.stream().collect(Collectors.toMap(ProcessingStage::name, Function.identity()));
+        this.meterRegistry = meterRegistry;
+        // Stages block on file and database I/O; on virtual threads only the semaphore bounds them
+        this.workers = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("processing-")
+                : Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("processing-"));
+        this.idleWorkers = new Semaphore(concurrency);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.lease = lease;
+
+        Gauge.builder("infolock.processing.tasks", processingTaskRepository,
+                        repository -> repository.countByStatus(ProcessingTask.Status.PENDING))
+                .tag("status", "pending")
+                .register(meterRegistry);
+        Gauge.builder("infolock.processing.tasks", processingTaskRepository,
+                        repository -> repository.countByStatus(ProcessingTask.Status.FAILED))
+                .tag("status", "failed")
+                .register(meterRegistry);
+        Gauge.builder("infolock.processing.active", idleWorkers, idle -> concurrency - idle.availablePermits())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.poll-interval:PT1S}",
+            initialDelayString = "${app.processing.poll-interval:PT1S}")
+    public void dispatch() {
+        int idle = idleWorkers.availablePermits();
+        if (idle == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ProcessingTask task : processingTaskRepository.findDue(now, Limit.of(idle))) {
+            if (!idleWorkers.tryAcquire()) {
+                return;
+            }
+            if (processingTaskRepository.claim(task.getId(), now.plus(lease)) == 0) {
+                idleWorkers.release();
+                continue;
+            }
+            workers.execute(() -> {
+                try {
+                    run(task);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.lease-check-interval:PT1M}",
+            initialDelayString = "${app.processing.lease-check-interval:PT1M}")
+    public void releaseExpiredLeases() {
+        int released = processingTaskRepository.releaseExpiredLeases(LocalDateTime.now());
+        if (released > 0) {
+            log.warn("Returned {} abandoned processing tasks to the queue", released);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Interrupted tasks stay claimed and are picked up again after their lease expires
+        if (workers instanceof ExecutorService pool) {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void run(ProcessingTask task) {
+        int attempt = task.getAttempts() + 1;
+        ProcessingStage stage = stages.get(task.getStage());
+        if (stage == null) {
+            processingTaskRepository.reschedule(task.getId(), ProcessingTask.Status.FAILED,
+                    LocalDateTime.now(), "Unknown stage " + task.getStage());
+            return;
+        }
+
+        Timer.builder("infolock.processing.queue.delay")
+                .description("Time a due task waited for a free worker")
+                .tag("stage", stage.name())
+                .register(meterRegistry)
+                .record(Duration.between(task.getNextAttemptAt(), LocalDateTime.now()));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Optional<Document> document = documentRepository.findById(task.getDocumentId());
+            // A document deleted before its turn needs no processing
+            if (document.isPresent()) {
+                stage.process(document.get());
+            }
+            processingTaskRepository.deleteById(task.getId());
+        } catch (Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            if (error.length() > 1000) {
+                error = error.substring(0, 1000);
+            }
+            if (attempt >= maxAttempts) {
+                outcome = "failed";
+                log.error("Stage {} failed for document {} after {} attempts",
+                        stage.name(), task.getDocumentId(), attempt, e);
+                processingTaskRepository.reschedule(task.getId(), ProcessingTask.Status.FAILED,
+                        LocalDateTime.now(), error);
+            } else {
+                outcome = "retry";
+                Duration delay = backoff(attempt, retryBackoff, maxRetryBackoff);
+                log.warn("Stage {} failed for document {} (attempt {}), retrying in {}",
+                        stage.name(), task.getDocumentId(), attempt, delay, e);
+                processingTaskRepository.reschedule(task.getId(), ProcessingTask.Status.PENDING,
+                        LocalDateTime.now().plus(delay), error);
+            }
+        } finally {
+            sample.stop(Timer.builder("infolock.processing.stage.duration")
+                    .description("Time to run one processing stage on one document")
+                    .tag("stage", stage.name())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Doubles the delay after each failed attempt, capped at {@code max}, with
+     * jitter so tasks that failed together do not all retry together.
+     */
+    static Duration backoff(int attempt, Duration base, Duration max) {
+        long exponential = base.toMillis() << Math.min(attempt - 1, 30);
+        long capped = exponential <= 0 ? max.toMillis() : Math.min(exponential, max.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+}
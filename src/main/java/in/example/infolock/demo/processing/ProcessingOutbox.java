@@ -0,0 +1,47 @@
+package in.example.infolock.demo.processing;
+
+import in.example.infolock.demo.entity.ProcessingTask;
+import in.example.infolock.demo.repository.ProcessingTaskRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records processing work in the same transaction as the document change, so
+ * work is never lost on a crash and never queued for a rolled-back upload.
+ */
+@Component
+public class ProcessingOutbox {
+
+    private final ProcessingTaskRepository processingTaskRepository;
+    private final List<String> stageNames;
+
+    public ProcessingOutbox(ProcessingTaskRepository processingTaskRepository, List<ProcessingStage> stages) {
+        this.processingTaskRepository = processingTaskRepository;
+        this.stageNames = stages.stream().map(ProcessingStage::name).toList();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long documentId) {
+        for (String stage : stageNames) {
+            enqueue(documentId, stage);
+        }
+    }
+
+    /**
+     * Queues a single stage again, for example to re-render an evicted preview.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Long documentId, String stage) {
+        processingTaskRepository.save(ProcessingTask.builder()
+                .documentId(documentId)
+                .stage(stage)
+                .status(ProcessingTask.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,22 @@
+package in.example.infolock.demo.processing;
+
+import in.example.infolock.demo.entity.Document;
+
+/**
+ * One step of post-upload processing, such as verifying content, rendering a
+ * preview or scanning for malware. Every stage bean runs once for each new or
+ * replaced document content, off the request thread.
+ *
+ * Stages may run more than once for the same content (after a retry or a crash),
+ * so they must be idempotent. Throwing schedules a retry with backoff.
+ */
+public interface ProcessingStage {
+
+    /**
+     * Stable identifier stored with outstanding work. Renaming a stage orphans its
+     * queued tasks.
+     */
+    String name();
+
+    void process(Document document) throws Exception;
+}
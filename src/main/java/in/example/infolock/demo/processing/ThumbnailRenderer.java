@@ -0,0 +1,138 @@
+package in.example.infolock.demo.processing;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Renders small JPEG previews: the first page of a PDF, or a downscaled copy of
+ * a JPEG, PNG or GIF image. The longer side of the result is {@code size} pixels.
+ */
+@Component
+public class ThumbnailRenderer {
+
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/jpg", "image/png", "image/gif");
+    private static final float JPEG_QUALITY = 0.8f;
+
+    public boolean supports(String contentType, String fileName) {
+        return isPdf(contentType, fileName) || isImage(contentType, fileName);
+    }
+
+    public byte[] render(InputStream content, String contentType, String fileName, int size) throws IOException {
+        BufferedImage source = isPdf(contentType, fileName) ? renderFirstPage(content, size) : readImage(content, size);
+        return toJpeg(scale(source, size));
+    }
+
+    private static BufferedImage renderFirstPage(InputStream content, int size) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            if (pdf.getNumberOfPages() == 0) {
+                throw new IOException("PDF has no pages");
+            }
+            PDRectangle page = pdf.getPage(0).getCropBox();
+            // Render straight at preview resolution rather than at print DPI
+            float scale = size / Math.max(page.getWidth(), page.getHeight());
+            return new PDFRenderer(pdf).renderImage(0, scale);
+        }
+    }
+
+    /**
+     * Decodes only every n-th pixel of large images, so a 40 megapixel photo does
+     * not need a full-resolution raster in memory to produce a 256 pixel preview.
+     */
+    private static BufferedImage readImage(InputStream content, int size) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("Unrecognised image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha; transparent areas become white
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean isPdf(String contentType, String fileName) {
+        return normalize(contentType).equals("application/pdf") || lower(fileName).endsWith(".pdf");
+    }
+
+    private static boolean isImage(String contentType, String fileName) {
+        String name = lower(fileName);
+        return IMAGE_TYPES.contains(normalize(contentType))
+                || name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png") || name.endsWith(".gif");
+    }
+
+    private static String normalize(String contentType) {
+        String type = lower(contentType);
+        int params = type.indexOf(';');
+        return (params >= 0 ? type.substring(0, params) : type).trim();
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
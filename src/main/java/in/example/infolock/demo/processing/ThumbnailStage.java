@@ -0,0 +1,44 @@
+package in.example.infolock.demo.processing;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.storage.BlobStore;
+import in.example.infolock.demo.storage.ContentEncoder;
+import in.example.infolock.demo.storage.ThumbnailStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+
+/**
+ * Renders the preview served by {@code /api/documents/{id}/thumbnail}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ThumbnailStage implements ProcessingStage {
+
+    public static final String NAME = "thumbnail";
+
+    private final BlobStore blobStore;
+    private final ThumbnailStore thumbnailStore;
+    private final ThumbnailRenderer thumbnailRenderer;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void process(Document document) throws Exception {
+        String key = document.getContentKey();
+        if (key == null || !thumbnailRenderer.supports(document.getFileType(), document.getFileName())
+                || thumbnailStore.exists(key)) {
+            return;
+        }
+        byte[] image;
+        try (InputStream in = ContentEncoder.decode(blobStore.open(key), document.getContentEncoding())) {
+            image = thumbnailRenderer.render(in, document.getFileType(), document.getFileName(),
+                    thumbnailStore.getSize());
+        }
+        thumbnailStore.put(key, image);
+    }
+}
@@ -0,0 +1,58 @@
+package in.example.infolock.demo.repository;
+
+import in.example.infolock.demo.entity.ContentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from ContentBlob b where b.contentKey = :key")
+    Optional<ContentBlob> findForUpdate(@Param("key") String key);
+
+    @Modifying
+    @Query("update ContentBlob b set b.refCount = b.refCount + 1 where b.contentKey = :key")
+    int incrementRefCount(@Param("key") String key);
+
+    @Modifying
+    @Query("update ContentBlob b set b.refCount = b.refCount - 1 where b.contentKey = :key and b.refCount > 0")
+    int decrementRefCount(@Param("key") String key);
+
+    @Modifying
+    @Query("update ContentBlob b set b.refCount = b.refCount - :count where b.contentKey = :key and b.refCount >= :count")
+    int decrementRefCountBy(@Param("key") String key, @Param("count") long count);
+
+    @Query("select b.contentKey from ContentBlob b where b.refCount = 0 and b.createdDate < :cutoff")
+    List<String> findUnreferencedKeys(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Referenced, not yet archived blobs older than the cutoff that no document
+     * has uploaded or read since, in key order so callers can page with {@code after}.
+     */
+    @Query("select b.contentKey from ContentBlob b where b.archived = false and b.refCount > 0 " +
+            "and b.size <= :maxSize and b.createdDate < :cutoff and b.contentKey > :after " +
+            "and not exists (select d.id from Document d where d.contentKey = b.contentKey " +
+            "and coalesce(d.lastAccessDate, d.uploadDate) >= :cutoff) order by b.contentKey")
+    List<String> findColdKeys(@Param("cutoff") LocalDateTime cutoff, @Param("maxSize") long maxSize,
+                              @Param("after") String after, Limit limit);
+
+    @Query("select b.contentKey from ContentBlob b where b.archived = true")
+    List<String> findArchivedKeys();
+
+    @Query("select coalesce(sum(b.size), 0) from ContentBlob b where b.refCount > 0")
+    long sumReferencedSize();
+
+    @Query("select count(b) from ContentBlob b where b.refCount > 0")
+    long countReferenced();
+}
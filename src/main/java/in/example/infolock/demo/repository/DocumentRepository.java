@@ -1,18 +1,85 @@
 package in.example.infolock.demo.repository;
 
+import in.example.infolock.demo.dto.DocumentDTO;
 import in.example.infolock.demo.entity.Document;
-import in.example.infolock.demo.entity.UserEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
+
+    // Listings select only the columns of DocumentDTO instead of hydrating entities
+    String SELECT_DTO = "select new in.example.infolock.demo.dto.DocumentDTO(" +
+            "d.id, d.fileName, d.fileType, d.category, d.fileSize, d.uploadDate) from Document d ";
+    String BEFORE_CURSOR = "and (d.uploadDate < :uploadDate or (d.uploadDate = :uploadDate and d.id < :id)) " +
+            "order by d.uploadDate desc, d.id desc";
+    String AFTER_CURSOR = "and (d.uploadDate > :uploadDate or (d.uploadDate = :uploadDate and d.id > :id)) " +
+            "order by d.uploadDate asc, d.id asc";
+
     List<Document> findByCategory(String category);
-    List<Document> findByUser(UserEntity user);
-    List<Document> findByUserAndCategory(UserEntity user, String category);
-    Optional<Document> findByIdAndUser(Long id, UserEntity user);
-    boolean existsByIdAndUser(Long id, UserEntity user);
-}
\ No newline at end of file
+    Optional<Document> findByIdAndUserId(Long id, Long userId);
+    boolean existsByIdAndUserId(Long id, Long userId);
+    List<Document> findByUserIdAndIdInOrderById(Long userId, Collection<Long> ids);
+    List<Document> findByUserIdAndCategoryOrderById(Long userId, String category);
+
+    @Modifying
+    @Query("delete from Document d where d.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where d.user.id = :userId order by d.uploadDate desc, d.id desc")
+    List<DocumentDTO> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query(SELECT_DTO + "where d.user.id = :userId and d.category = :category order by d.uploadDate desc, d.id desc")
+    List<DocumentDTO> findDtosByUserIdAndCategory(@Param("userId") Long userId, @Param("category") String category);
+
+    /*
+     * Keyset pages ordered by (uploadDate, id). Each page starts strictly after the
+     * last row of the previous one, so the cost of a page does not grow with its
+     * position. Served by the (user_id, upload_date, id) and
+     * (user_id, category, upload_date) indexes on documents.
+     */
+
+    @Query(SELECT_DTO + "where d.user.id = :userId " + BEFORE_CURSOR)
+    List<DocumentDTO> findPageNewestFirst(@Param("userId") Long userId, @Param("uploadDate") LocalDateTime uploadDate,
+                                          @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_DTO + "where d.user.id = :userId " + AFTER_CURSOR)
+    List<DocumentDTO> findPageOldestFirst(@Param("userId") Long userId, @Param("uploadDate") LocalDateTime uploadDate,
+                                          @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_DTO + "where d.user.id = :userId and d.category = :category " + BEFORE_CURSOR)
+    List<DocumentDTO> findCategoryPageNewestFirst(@Param("userId") Long userId, @Param("category") String category,
+                                                  @Param("uploadDate") LocalDateTime uploadDate,
+                                                  @Param("id") Long id, Limit limit);
+
+    @Query(SELECT_DTO + "where d.user.id = :userId and d.category = :category " + AFTER_CURSOR)
+    List<DocumentDTO> findCategoryPageOldestFirst(@Param("userId") Long userId, @Param("category") String category,
+                                                  @Param("uploadDate") LocalDateTime uploadDate,
+                                                  @Param("id") Long id, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Document d set d.lastAccessDate = :accessed where d.id in :ids")
+    int recordAccess(@Param("ids") Collection<Long> ids, @Param("accessed") LocalDateTime accessed);
+
+    @Query("select d.id from Document d where d.id > :after order by d.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select coalesce(sum(d.fileSize), 0) from Document d")
+    long sumFileSize();
+
+    // Original size of each distinct content once, however many documents share it
+    @Query("select coalesce(sum(u.size), 0) from (select max(d.fileSize) as size from Document d " +
+            "where d.contentKey is not null group by d.contentKey) u")
+    long sumDistinctContentSize();
+}
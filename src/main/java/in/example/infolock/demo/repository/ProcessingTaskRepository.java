@@ -0,0 +1,56 @@
+package in.example.infolock.demo.repository;
+
+import in.example.infolock.demo.entity.ProcessingTask;
+import in.example.infolock.demo.entity.ProcessingTask.Status;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProcessingTaskRepository extends JpaRepository<ProcessingTask, Long> {
+
+    @Query("select t from ProcessingTask t " +
+            "where t.status = in.example.infolock.demo.entity.ProcessingTask.Status.PENDING " +
+            "and t.nextAttemptAt <= :now order by t.nextAttemptAt")
+    List<ProcessingTask> findDue(@Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Takes a pending task for this worker until {@code leaseUntil}. Returns 0 when
+     * another worker or instance claimed it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ProcessingTask t set t.status = in.example.infolock.demo.entity.ProcessingTask.Status.RUNNING, " +
+            "t.attempts = t.attempts + 1, t.nextAttemptAt = :leaseUntil " +
+            "where t.id = :id and t.status = in.example.infolock.demo.entity.ProcessingTask.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update ProcessingTask t set t.status = :status, t.nextAttemptAt = :nextAttemptAt, t.lastError = :error " +
+            "where t.id = :id")
+    int reschedule(@Param("id") Long id, @Param("status") Status status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    /**
+     * Returns tasks whose worker died mid-run to the pending state.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ProcessingTask t set t.status = in.example.infolock.demo.entity.ProcessingTask.Status.PENDING " +
+            "where t.status = in.example.infolock.demo.entity.ProcessingTask.Status.RUNNING and t.nextAttemptAt < :now")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now);
+
+    long countByStatus(Status status);
+
+    List<ProcessingTask> findByDocumentId(Long documentId);
+
+    boolean existsByDocumentIdAndStage(Long documentId, String stage);
+}
@@ -0,0 +1,20 @@
+package in.example.infolock.demo.repository;
+
+import in.example.infolock.demo.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiryDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
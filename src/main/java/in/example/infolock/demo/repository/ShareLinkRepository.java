@@ -2,14 +2,74 @@ package in.example.infolock.demo.repository;
 
 import in.example.infolock.demo.entity.Document;
 import in.example.infolock.demo.entity.ShareLink;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ShareLinkRepository extends JpaRepository<ShareLink, Long> {
     Optional<ShareLink> findByToken(String token);
-    Optional<ShareLink> findByDocumentIdAndIsPublic(Long documentId, Boolean isPublic);
-    boolean existsByDocumentIdAndIsPublic(Long documentId, Boolean isPublic);
+
+    Optional<ShareLink> findByPublicDocumentId(Long documentId);
+    boolean existsByPublicDocumentId(Long documentId);
+    Optional<ShareLink> findByDocumentIdAndIdempotencyKey(Long documentId, String idempotencyKey);
+
+    @Query("select s from ShareLink s where s.id > :after and s.isActive = true " +
+            "and (s.expiryDate is null or s.expiryDate > :now) order by s.id")
+    List<ShareLink> findActiveAfter(@Param("after") Long after, @Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * The link with its document if it can still be viewed; the check behind every
+     * view, since another node may have deactivated or deleted it.
+     */
+    @Query("select s from ShareLink s join fetch s.document where s.id = :id and s.isActive = true " +
+            "and (s.expiryDate is null or s.expiryDate > :now)")
+    Optional<ShareLink> findViewable(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /*
+     * Links that can never be viewed again, for ShareLinkSweeper. Expired links are
+     * found through the expiry_date index and deactivated ones through the leading
+     * column of (is_active, expiry_date), so each batch reads only the rows it purges.
+     */
+
+    @Query("select s.id from ShareLink s where s.expiryDate < :now")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
+
+    @Query("select s.id from ShareLink s where s.isActive = false")
+    List<Long> findInactiveIds(Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ShareLink s where s.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from ShareLink s where s.document.id in :documentIds")
+    int deleteByDocumentIdIn(@Param("documentIds") Collection<Long> documentIds);
+
+    /**
+     * Counts one view if the link is still active, unexpired and under its limit.
+     * The row lock taken by the update serializes concurrent viewers, so the limit
+     * is never exceeded.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ShareLink s set s.viewCount = coalesce(s.viewCount, 0) + 1 " +
+            "where s.id = :id and s.isActive = true and (s.expiryDate is null or s.expiryDate > :now) " +
+            "and coalesce(s.viewCount, 0) < s.maxViews")
+    int admitView(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update ShareLink s set s.viewCount = coalesce(s.viewCount, 0) + :views where s.id = :id")
+    int addViews(@Param("id") Long id, @Param("views") int views);
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package in.example.infolock.demo.repository;
+
+import in.example.infolock.demo.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    Optional<UploadSession> findByIdAndUserId(String id, Long userId);
+    List<UploadSession> findByLastActivityBefore(LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("update UploadSession s set s.lastActivity = :now where s.id = :id")
+    int touch(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims the session for completion, so concurrent completions create one
+     * document. A claim older than {@code staleBefore} was left by a crashed node
+     * and may be taken over.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UploadSession s set s.completingSince = :now where s.id = :id " +
+            "and (s.completingSince is null or s.completingSince < :staleBefore)")
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update UploadSession s set s.completingSince = null where s.id = :id")
+    int release(@Param("id") String id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from UploadSession s where s.id = :id")
+    int deleteSession(@Param("id") String id);
+}
@@ -0,0 +1,171 @@
+package in.example.infolock.demo.search;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lucene index of document names, categories and extracted text, kept on local
+ * disk. Each Lucene document stores the fields of {@link DocumentDTO}, so search
+ * results are answered from the index alone without touching the database.
+ *
+ * Writes are visible to searches after {@link #refresh()}; {@link SearchIndexer}
+ * calls it whenever its queue drains.
+ */
+@Component
+public class SearchIndex {
+
+    static final String ID = "id";
+    static final String USER_ID = "userId";
+    static final String FILE_NAME = "fileName";
+    static final String FILE_TYPE = "fileType";
+    static final String CATEGORY = "category";
+    static final String FILE_SIZE = "fileSize";
+    static final String UPLOAD_DATE = "uploadDate";
+    static final String CONTENT = "content";
+
+    // Matches on the name weigh more than matches in the body
+    private static final Map<String, Float> SEARCH_FIELDS = Map.of(FILE_NAME, 3f, CATEGORY, 2f, CONTENT, 1f);
+
+    private final Directory directory;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public SearchIndex(@Value("${app.search.index-dir:data/search-index}") String indexDir) throws IOException {
+        Path path = Paths.get(indexDir).toAbsolutePath().normalize();
+        Files.createDirectories(path);
+        this.directory = FSDirectory.open(path);
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    public void index(DocumentDTO document, Long userId, String content) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(ID, document.getId().toString(), Field.Store.YES));
+        doc.add(new StringField(USER_ID, userId.toString(), Field.Store.NO));
+        doc.add(new TextField(FILE_NAME, searchableName(document.getFileName()), Field.Store.NO));
+        doc.add(new StoredField(FILE_NAME, nullToEmpty(document.getFileName())));
+        doc.add(new TextField(CATEGORY, nullToEmpty(document.getCategory()), Field.Store.YES));
+        doc.add(new StoredField(FILE_TYPE, nullToEmpty(document.getFileType())));
+        doc.add(new StoredField(FILE_SIZE, document.getFileSize() == null ? 0L : document.getFileSize()));
+        if (document.getUploadDate() != null) {
+            doc.add(new StoredField(UPLOAD_DATE, document.getUploadDate().toString()));
+        }
+        doc.add(new TextField(CONTENT, nullToEmpty(content), Field.Store.NO));
+        writer.updateDocument(new Term(ID, document.getId().toString()), doc);
+    }
+
+    public void delete(Long documentId) throws IOException {
+        writer.deleteDocuments(new Term(ID, documentId.toString()));
+    }
+
+    public void deleteAll() throws IOException {
+        writer.deleteAll();
+    }
+
+    /**
+     * Makes pending writes visible to searches and durable on disk.
+     */
+    public void refresh() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    public int documentCount() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Searches one user's documents. The query accepts simple syntax: quoted
+     * phrases, {@code -term} to exclude and {@code prefix*}.
+     */
+    public List<DocumentDTO> search(Long userId, String text, int limit) throws IOException {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, SEARCH_FIELDS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = new BooleanQuery.Builder()
+                .add(parser.parse(text), BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(USER_ID, userId.toString())), BooleanClause.Occur.FILTER)
+                .build();
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            StoredFields storedFields = searcher.storedFields();
+            List<DocumentDTO> results = new ArrayList<>();
+            for (ScoreDoc hit : searcher.search(query, limit).scoreDocs) {
+                results.add(toDTO(storedFields.document(hit.doc)));
+            }
+            return results;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private static DocumentDTO toDTO(Document doc) {
+        String uploadDate = doc.get(UPLOAD_DATE);
+        return DocumentDTO.builder()
+                .id(Long.parseLong(doc.get(ID)))
+                .fileName(doc.get(FILE_NAME))
+                .fileType(doc.get(FILE_TYPE))
+                .category(doc.get(CATEGORY))
+                .fileSize(doc.getField(FILE_SIZE).numericValue().longValue())
+                .uploadDate(uploadDate == null ? null : LocalDateTime.parse(uploadDate))
+                .build();
+    }
+
+    /**
+     * The standard tokenizer keeps "invoice.pdf" and "tax_2023" as single words,
+     * so split names on dots and underscores to make each part searchable.
+     */
+    private static String searchableName(String fileName) {
+        return nullToEmpty(fileName).replace('.', ' ').replace('_', ' ');
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,36 @@
+package in.example.infolock.demo.search;
+
+import in.example.infolock.demo.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the search index from the database when started with
+ * {@code --rebuild-search-index}, or automatically when the index is empty but
+ * documents exist (first start, or the index directory was removed). The rebuild
+ * runs in the background; searches return partial results until it finishes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexRebuild implements ApplicationRunner {
+
+    static final String REBUILD_OPTION = "rebuild-search-index";
+
+    private final SearchIndex searchIndex;
+    private final SearchIndexer searchIndexer;
+    private final DocumentRepository documentRepository;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (args.containsOption(REBUILD_OPTION)) {
+            searchIndexer.rebuild();
+        } else if (searchIndex.documentCount() == 0 && documentRepository.count() > 0) {
+            log.info("Search index is empty, rebuilding it from the database");
+            searchIndexer.rebuild();
+        }
+    }
+}
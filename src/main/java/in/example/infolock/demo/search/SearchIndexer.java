@@ -0,0 +1,231 @@
+package in.example.infolock.demo.search;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.service.DocumentChangedEvent;
+import in.example.infolock.demo.service.DocumentService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the {@link SearchIndex} in step with the database. Committed document
+ * changes are queued and applied by a single background thread, so uploads never
+ * wait for text extraction. Each drained batch is committed and made searchable
+ * in one step.
+ *
+ * A full rebuild runs on the same thread, so changes queued during the rebuild
+ * are applied after it and the result stays consistent.
+ */
+@Slf4j
+@Component
+public class SearchIndexer {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private final SearchIndex searchIndex;
+    private final TextExtractor textExtractor;
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final BlockingQueue<Task> queue;
+    private final Timer indexTimer;
+    private final Timer lagTimer;
+    private final Counter dropped;
+
+    // Queued or in-flight tasks, so callers can wait for the index to catch up
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private Thread worker;
+    private volatile boolean running;
+
+    public SearchIndexer(SearchIndex searchIndex, TextExtractor textExtractor,
+                         DocumentRepository documentRepository, DocumentService documentService,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.search.queue-capacity:10000}") int queueCapacity) {
+        this.searchIndex = searchIndex;
+        this.textExtractor = textExtractor;
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("infolock.search.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        Gauge.builder("infolock.search.lag", this, SearchIndexer::oldestPendingSeconds)
+                .description("Age of the oldest change not yet searchable")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.indexTimer = Timer.builder("infolock.search.index.duration")
+                .description("Time to extract and index one document")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("infolock.search.visibility.delay")
+                .description("Time from commit until a change is searchable")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("infolock.search.queue.dropped")
+                .description("Changes not indexed because the queue was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "search-indexer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // No interrupt: Lucene invalidates its write lock when a thread is interrupted mid-I/O.
+        // The worker polls with a timeout, so it notices the flag within a second.
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @TransactionalEventListener
+    public void onDocumentChanged(DocumentChangedEvent event) {
+        Task task = new Task(event.isDeleted() ? Kind.DELETE : Kind.UPSERT, event.getDocumentId(), System.nanoTime());
+        pending.incrementAndGet();
+        if (!queue.offer(task)) {
+            pending.decrementAndGet();
+            dropped.increment();
+            log.warn("Search queue full, document {} will be indexed by the next rebuild", event.getDocumentId());
+        }
+    }
+
+    /**
+     * Clears the index and re-indexes every document from the database.
+     */
+    public void rebuild() throws InterruptedException {
+        pending.incrementAndGet();
+        queue.put(new Task(Kind.REBUILD, null, System.nanoTime()));
+    }
+
+    /**
+     * Returns once every change queued so far is searchable, or false on timeout.
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pending.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private void run() {
+        List<Task> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                Task first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Task task : batch) {
+                    apply(task);
+                }
+                searchIndex.refresh();
+                long now = System.nanoTime();
+                for (Task task : batch) {
+                    lagTimer.record(now - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to update the search index", e);
+            } finally {
+                pending.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void apply(Task task) throws IOException {
+        switch (task.kind()) {
+            case UPSERT -> indexTimer.record(() -> upsert(task.documentId()));
+            case DELETE -> searchIndex.delete(task.documentId());
+            case REBUILD -> rebuildNow();
+        }
+    }
+
+    private void upsert(Long documentId) {
+        try {
+            Optional<Document> document = documentRepository.findById(documentId);
+            if (document.isEmpty()) {
+                // Deleted again before we got to it
+                searchIndex.delete(documentId);
+                return;
+            }
+            Document doc = document.get();
+            searchIndex.index(documentService.toDTO(doc), doc.getUser().getId(), extractText(doc));
+        } catch (IOException e) {
+            log.warn("Failed to index document {}", documentId, e);
+        }
+    }
+
+    private String extractText(Document document) {
+        if (document.getContentKey() == null) {
+            return "";
+        }
+        try (InputStream in = documentService.openContent(document)) {
+            return textExtractor.extract(in, document.getFileType(), document.getFileName());
+        } catch (IOException | RuntimeException e) {
+            // Still searchable by name and category
+            log.warn("Failed to extract text from document {}", document.getId(), e);
+            return "";
+        }
+    }
+
+    private void rebuildNow() throws IOException {
+        log.info("Rebuilding search index");
+        searchIndex.deleteAll();
+        long indexed = 0;
+        Long after = 0L;
+        List<Long> ids;
+        do {
+            ids = documentRepository.findIdsAfter(after, Limit.of(REBUILD_PAGE_SIZE));
+            for (Long id : ids) {
+                indexTimer.record(() -> upsert(id));
+                after = id;
+                indexed++;
+            }
+            searchIndex.refresh();
+        } while (!ids.isEmpty());
+        log.info("Rebuilt search index with {} documents", indexed);
+    }
+
+    private double oldestPendingSeconds() {
+        Task oldest = queue.peek();
+        return oldest == null ? 0 : (System.nanoTime() - oldest.enqueuedAt()) / 1e9;
+    }
+
+    private enum Kind {
+        UPSERT, DELETE, REBUILD
+    }
+
+    private record Task(Kind kind, Long documentId, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,122 @@
+package in.example.infolock.demo.search;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Pulls plain text out of PDF, DOCX and text documents for the search index.
+ * Other formats are indexed by name and category only. Output is capped so a
+ * single huge document cannot dominate indexing time or memory.
+ */
+@Component
+public class TextExtractor {
+
+    private static final String WORD_NAMESPACE = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private final int maxChars;
+
+    public TextExtractor(@Value("${app.search.max-content-chars:1000000}") int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Returns the extracted text, or an empty string when the format is not supported.
+     */
+    public String extract(InputStream content, String contentType, String fileName) throws IOException {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+
+        if (type.contains("pdf") || name.endsWith(".pdf")) {
+            return extractPdf(content);
+        }
+        if (type.contains("wordprocessingml") || type.equals("docx") || name.endsWith(".docx")) {
+            return extractDocx(content);
+        }
+        if (type.startsWith("text/") || type.equals("txt") || name.endsWith(".txt")) {
+            return extractText(content);
+        }
+        return "";
+    }
+
+    private String extractPdf(InputStream content) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            return truncate(new PDFTextStripper().getText(pdf));
+        }
+    }
+
+    private String extractDocx(InputStream content) throws IOException {
+        // A DOCX is a zip; the body text lives in the w:t elements of word/document.xml
+        ZipInputStream zip = new ZipInputStream(content);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (entry.getName().equals("word/document.xml")) {
+                return extractWordXml(zip);
+            }
+        }
+        return "";
+    }
+
+    private String extractWordXml(InputStream xml) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        StringBuilder text = new StringBuilder();
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(xml);
+            boolean inText = false;
+            while (reader.hasNext() && text.length() < maxChars) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && isWordElement(reader, "t")) {
+                    inText = true;
+                } else if (event == XMLStreamConstants.END_ELEMENT && isWordElement(reader, "t")) {
+                    inText = false;
+                } else if (event == XMLStreamConstants.END_ELEMENT && isWordElement(reader, "p")) {
+                    text.append('\n');
+                } else if (event == XMLStreamConstants.CHARACTERS && inText) {
+                    text.append(reader.getText());
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed DOCX content", e);
+        }
+        return truncate(text.toString());
+    }
+
+    private String extractText(InputStream content) throws IOException {
+        Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while (text.length() < maxChars && (read = reader.read(buffer)) != -1) {
+            text.append(buffer, 0, read);
+        }
+        return truncate(text.toString());
+    }
+
+    private static boolean isWordElement(XMLStreamReader reader, String localName) {
+        return localName.equals(reader.getLocalName()) && WORD_NAMESPACE.equals(reader.getNamespaceURI());
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+}
@@ -16,6 +16,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import in.example.infolock.demo.services.CustomUserDetailsService;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +35,12 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -50,17 +62,25 @@ public class JwtFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            String username = jwtUtil.extractUsername(token);
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null ) {
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authenticationToken =
-                            new UsernamePasswordAuthenticationToken(userDetails.getUsername(), userDetails.getPassword(), userDetails.getAuthorities());
-                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            // One signature check and one user lookup per token, not per request
+            UserDetails userDetails = tokenCache.get(token);
+            if (userDetails == null) {
+                Claims claims = parseClaims(token);
+                if (claims.getSubject() == null) {
+                    throw new JwtException("Token has no subject");
                 }
+                userDetails = customUserDetailsService.loadUserByUsername(claims.getSubject());
+                if (tokenCache.isRejected(token, claims, userDetails)) {
+                    throw new JwtException("Token revoked");
+                }
+                tokenCache.put(token, userDetails, claims);
+            }
 
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authenticationToken =
+                        new UsernamePasswordAuthenticationToken(userDetails, userDetails.getPassword(), userDetails.getAuthorities());
+                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
             }
         } catch (Exception e) {
             Map<String, String> responseMap = new HashMap<>();
@@ -79,4 +99,16 @@ public class JwtFilter extends OncePerRequestFilter {
 
     }
 
+    private Claims parseClaims(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "invalid";
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            outcome = "valid";
+            return claims;
+        } finally {
+            sample.stop(meterRegistry.timer("infolock.security.jwt.parse", "outcome", outcome));
+        }
+    }
+
 }
@@ -8,18 +8,27 @@ import javax.crypto.SecretKey;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtUtil {
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
     private static final String SECRET_KEY_STRING = "9W7cVK3B59dOk0SdPyqgEGrv7EUz7WhA";
 
     private final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(SECRET_KEY_STRING.getBytes());
 
+    // Immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser = Jwts.parser().verifyWith(SECRET_KEY).build();
+
     public String generateToken(UserDetails userDetails) {
+        int tokenVersion = userDetails instanceof UserPrincipal principal ? principal.getTokenVersion() : 0;
         return Jwts.builder()
                 .subject(userDetails.getUsername())
+                .claim(TOKEN_VERSION_CLAIM, tokenVersion)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 1000  * 60 * 60))
                 .signWith(SECRET_KEY, Jwts.SIG.HS256)
@@ -32,11 +41,13 @@ public class JwtUtil {
     }
 
     public String extractUsername(String token) {
-        return Jwts.parser()
-                .verifyWith(SECRET_KEY)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return parseClaims(token).getSubject();
+    }
+
+    /**
+     * Verifies the signature and expiry once and returns all claims.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package in.example.infolock.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import in.example.infolock.demo.entity.RevokedToken;
+import in.example.infolock.demo.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * Verified token to principal cache for {@link JwtFilter}. Entries live for at
+ * most the configured TTL and never past the token's own expiry, so a cache hit
+ * skips both the HMAC check and the user lookup without extending a token's life.
+ *
+ * Revocation is kept in the database and checked on every cache miss, so it
+ * survives restarts and applies on every node. Logout stores the token until it
+ * expires; a password change bumps the user's token version, which rejects every
+ * token issued before it. Other nodes notice once their cached entry expires,
+ * within the cache TTL.
+ */
+@Slf4j
+@Component
+public class TokenCache {
+
+    private final Cache<String, Entry> verified;
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    public TokenCache(RevokedTokenRepository revokedTokenRepository,
+                      @Value("${app.security.token-cache.max-size:10000}") long maxSize,
+                      @Value("${app.security.token-cache.ttl:PT5M}") Duration ttl) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry(ttl))
+                .build();
+    }
+
+    public UserDetails get(String token) {
+        Entry entry = verified.getIfPresent(token);
+        return entry == null ? null : entry.userDetails();
+    }
+
+    public void put(String token, UserDetails userDetails, Claims claims) {
+        if (claims.getExpiration() != null) {
+            verified.put(token, new Entry(userDetails, claims.getExpiration().toInstant()));
+        }
+    }
+
+    /**
+     * Whether freshly verified claims must still be rejected because of a logout
+     * or password change.
+     */
+    public boolean isRejected(String token, Claims claims, UserDetails userDetails) {
+        Integer tokenVersion = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class);
+        if (userDetails instanceof UserPrincipal principal
+                && (tokenVersion == null ? 0 : tokenVersion) != principal.getTokenVersion()) {
+            return true;
+        }
+        return revokedTokenRepository.existsById(hash(token));
+    }
+
+    public void revoke(String token, Claims claims) {
+        Instant expiresAt = claims.getExpiration() != null ? claims.getExpiration().toInstant() : Instant.now();
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenHash(hash(token))
+                .expiryDate(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()))
+                .build());
+        verified.invalidate(token);
+    }
+
+    /**
+     * Drops this node's cached entries for a user whose token version was bumped.
+     */
+    public void invalidateUser(String username) {
+        verified.asMap().values().removeIf(entry -> entry.userDetails().getUsername().equals(username));
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.revoked-token-purge-interval:PT1H}")
+    public void purgeExpiredRevocations() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired token revocations", purged);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(UserDetails userDetails, Instant expiresAt) {
+    }
+
+    private static class UntilTokenExpiry implements Expiry<String, Entry> {
+        private final Duration ttl;
+
+        UntilTokenExpiry(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), entry.expiresAt());
+            if (untilExpiry.isNegative()) {
+                return 0;
+            }
+            return (untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
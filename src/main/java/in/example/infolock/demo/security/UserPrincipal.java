@@ -0,0 +1,30 @@
+package in.example.infolock.demo.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated user as seen by controllers. Carries the user id so services can
+ * scope queries by it directly instead of looking the user up again by email.
+ */
+@Getter
+public class UserPrincipal extends User {
+
+    private final Long id;
+    private final int tokenVersion;
+
+    public UserPrincipal(Long id, String email, String password,
+                         Collection<? extends GrantedAuthority> authorities) {
+        this(id, email, password, 0, authorities);
+    }
+
+    public UserPrincipal(Long id, String email, String password, int tokenVersion,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(email, password, authorities);
+        this.id = id;
+        this.tokenVersion = tokenVersion;
+    }
+}
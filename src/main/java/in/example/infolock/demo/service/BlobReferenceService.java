@@ -0,0 +1,139 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.entity.ContentBlob;
+import in.example.infolock.demo.exception.StorageException;
+import in.example.infolock.demo.repository.ContentBlobRepository;
+import in.example.infolock.demo.storage.BlobStore;
+import in.example.infolock.demo.storage.StagedBlob;
+import in.example.infolock.demo.storage.StoredBlob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link ContentBlob} reference counts in step with the documents that point
+ * at each stored blob, and deletes blobs once nothing references them.
+ *
+ * Publishing a blob and reclaiming it both happen while holding the content_blobs
+ * row lock, so a new upload of the same bytes can never race with its deletion.
+ */
+@Slf4j
+@Service
+public class BlobReferenceService {
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final BlobStore blobStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.storage.reclaim-grace-period:PT10M}")
+    private Duration reclaimGracePeriod;
+
+    public BlobReferenceService(ContentBlobRepository contentBlobRepository, BlobStore blobStore,
+                                PlatformTransactionManager transactionManager) {
+        this.contentBlobRepository = contentBlobRepository;
+        this.blobStore = blobStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Creates the content_blobs row for staged content if it is new. Call this
+     * before opening the transaction that will {@link #acquire} it, so the insert
+     * does not need a second connection or contend with that transaction's locks.
+     */
+    public void prepare(StagedBlob staged) {
+        if (contentBlobRepository.existsById(staged.getKey())) {
+            return;
+        }
+        try {
+            contentBlobRepository.saveAndFlush(ContentBlob.builder()
+                    .contentKey(staged.getKey())
+                    .size(staged.getSize())
+                    .refCount(0L)
+                    .createdDate(LocalDateTime.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently by another upload of the same content
+        }
+    }
+
+    /**
+     * Adds one reference to the staged content and publishes it in the store.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StoredBlob acquire(StagedBlob staged) {
+        if (contentBlobRepository.incrementRefCount(staged.getKey()) == 0) {
+            // Reclaimed between prepare() and now; recreate it inside this transaction
+            contentBlobRepository.saveAndFlush(ContentBlob.builder()
+                    .contentKey(staged.getKey())
+                    .size(staged.getSize())
+                    .refCount(1L)
+                    .createdDate(LocalDateTime.now())
+                    .build());
+        }
+        try {
+            return blobStore.commit(staged);
+        } catch (IOException e) {
+            throw new StorageException("Failed to publish blob " + staged.getKey(), e);
+        }
+    }
+
+    /**
+     * Drops one reference. The blob itself is deleted later by {@link #reclaimUnreferenced()}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String contentKey) {
+        if (contentKey != null) {
+            contentBlobRepository.decrementRefCount(contentKey);
+        }
+    }
+
+    /**
+     * Drops one reference per entry, with one update per distinct blob.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseAll(Collection<String> contentKeys) {
+        contentKeys.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .forEach(contentBlobRepository::decrementRefCountBy);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.reclaim-interval:PT10M}")
+    public void reclaimUnreferenced() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(reclaimGracePeriod);
+        for (String key : contentBlobRepository.findUnreferencedKeys(cutoff)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> reclaim(key));
+            } catch (RuntimeException e) {
+                log.warn("Failed to reclaim blob {}", key, e);
+            }
+        }
+    }
+
+    private void reclaim(String key) {
+        contentBlobRepository.findForUpdate(key)
+                .filter(blob -> blob.getRefCount() == 0)
+                .ifPresent(blob -> {
+                    contentBlobRepository.delete(blob);
+                    try {
+                        blobStore.delete(key);
+                    } catch (IOException e) {
+                        throw new StorageException("Failed to delete blob " + key, e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,214 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.exception.InvalidBatchRequestException;
+import in.example.infolock.demo.exception.InvalidFileException;
+import in.example.infolock.demo.processing.ProcessingOutbox;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.storage.BlobStore;
+import in.example.infolock.demo.storage.ContentEncoder;
+import in.example.infolock.demo.storage.EncodedBlob;
+import in.example.infolock.demo.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Operations on many documents at once. A batch shares one transaction, and
+ * deletes run as set-based statements rather than one round trip per document.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkDocumentService {
+
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+
+    private final DocumentRepository documentRepository;
+    private final UserRepository userRepository;
+    private final ShareLinkRepository shareLinkRepository;
+    private final DocumentService documentService;
+    private final BlobStore blobStore;
+    private final ContentEncoder contentEncoder;
+    private final BlobReferenceService blobReferenceService;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcessingOutbox processingOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Stores every file under its original name. Content is streamed to the blob
+     * store first, then all rows are written in one transaction, so either the
+     * whole batch is uploaded or none of it is.
+     */
+    public List<DocumentDTO> uploadDocuments(List<MultipartFile> files, String category,
+                                             Long userId) throws IOException {
+        checkBatchSize(files.size());
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                throw new InvalidFileException("File cannot be empty: " + file.getOriginalFilename());
+            }
+        }
+
+        List<EncodedBlob> encoded = new ArrayList<>(files.size());
+        try {
+            for (MultipartFile file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    encoded.add(contentEncoder.stage(in, file.getContentType()));
+                }
+                blobReferenceService.prepare(encoded.get(encoded.size() - 1).getStaged());
+            }
+
+            return transactionTemplate.execute(status -> {
+                UserEntity user = userRepository.getReferenceById(userId);
+                LocalDateTime now = LocalDateTime.now();
+                List<Document> documents = new ArrayList<>(files.size());
+                for (int i = 0; i < files.size(); i++) {
+                    MultipartFile file = files.get(i);
+                    EncodedBlob blob = encoded.get(i);
+                    StoredBlob stored = blobReferenceService.acquire(blob.getStaged());
+                    documents.add(Document.builder()
+                            .fileName(StringUtils.hasText(file.getOriginalFilename())
+                                    ? file.getOriginalFilename() : "file-" + (i + 1))
+                            .fileType(file.getContentType())
+                            .category(category)
+                            .contentKey(stored.getKey())
+                            .contentEncoding(blob.getEncoding())
+                            .fileSize(blob.getOriginalSize())
+                            .uploadDate(now)
+                            .user(user)
+                            .build());
+                }
+
+                List<Document> saved = documentRepository.saveAll(documents);
+                List<DocumentDTO> result = new ArrayList<>(saved.size());
+                for (Document document : saved) {
+                    processingOutbox.enqueue(document.getId());
+                    eventPublisher.publishEvent(new DocumentChangedEvent(document.getId(), false));
+                    result.add(documentService.toDTO(document));
+                }
+                return result;
+            });
+        } finally {
+            for (EncodedBlob blob : encoded) {
+                blobStore.discard(blob.getStaged());
+            }
+        }
+    }
+
+    /**
+     * Deletes those of the given documents that belong to the user, together with
+     * their share links. Ids of other users' or missing documents are ignored.
+     *
+     * @return the number of documents deleted
+     */
+    @Transactional
+    public int deleteDocuments(Collection<Long> ids, Long userId) {
+        checkBatchSize(ids.size());
+        List<Document> owned = documentRepository.findByUserIdAndIdInOrderById(userId, ids);
+        if (owned.isEmpty()) {
+            return 0;
+        }
+        List<Long> ownedIds = owned.stream().map(Document::getId).toList();
+
+        shareLinkRepository.deleteByDocumentIdIn(ownedIds);
+        documentRepository.deleteAllByIdIn(ownedIds);
+        blobReferenceService.releaseAll(owned.stream().map(Document::getContentKey).toList());
+        for (Long id : ownedIds) {
+            eventPublisher.publishEvent(new DocumentChangedEvent(id, true));
+        }
+        return ownedIds.size();
+    }
+
+    /**
+     * Resolves an archive selection: either explicit ids or a whole category.
+     */
+    @Transactional(readOnly = true)
+    public List<Document> findForArchive(Long userId, List<Long> ids, String category) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        if (byIds == StringUtils.hasText(category)) {
+            throw new InvalidBatchRequestException("Specify either ids or a category");
+        }
+        if (byIds) {
+            checkBatchSize(ids.size());
+            return documentRepository.findByUserIdAndIdInOrderById(userId, ids);
+        }
+        return documentRepository.findByUserIdAndCategoryOrderById(userId, category);
+    }
+
+    /**
+     * Writes the documents as a ZIP, one entry at a time, so memory use does not
+     * depend on the size of the archive. Content the encoder left uncompressed
+     * was judged incompressible, and is stored rather than deflated again.
+     */
+    public void writeArchive(List<Document> documents, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, ARCHIVE_BUFFER_SIZE));
+        Set<String> names = new HashSet<>();
+        for (Document document : documents) {
+            if (document.getContentKey() == null) {
+                continue;
+            }
+            ZipEntry entry = new ZipEntry(entryName(document.getFileName(), names));
+            if (document.getUploadDate() != null) {
+                entry.setTime(document.getUploadDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            zip.setLevel(document.getContentEncoding() == null ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED);
+            zip.putNextEntry(entry);
+            try (InputStream in = documentService.openContent(document)) {
+                in.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Flattens the name so it cannot escape the extraction directory, and numbers
+     * repeats the way file managers do ("a.txt", "a (2).txt").
+     */
+    static String entryName(String fileName, Set<String> used) {
+        String name = StringUtils.hasText(fileName) ? fileName.replaceAll("[/\\\\:]", "_") : "document";
+        if (name.equals(".") || name.equals("..")) {
+            name = "document";
+        }
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int n = 2; !used.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw new InvalidBatchRequestException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.repository.DocumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which documents were read and stamps their last access time in
+ * batches, so a download never waits on an update. {@link StorageTieringService}
+ * uses the timestamps to find content nobody reads any more; minute precision is
+ * plenty for that.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentAccessTracker {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final DocumentRepository documentRepository;
+    private final Set<Long> accessed = ConcurrentHashMap.newKeySet();
+
+    public void record(Long documentId) {
+        if (documentId != null) {
+            accessed.add(documentId);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.storage.tiering.access-flush-interval:PT1M}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> batch = new ArrayList<>(BATCH_SIZE);
+        Iterator<Long> iterator = accessed.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+            if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+                try {
+                    documentRepository.recordAccess(batch, now);
+                } catch (RuntimeException e) {
+                    accessed.addAll(batch);
+                    log.warn("Failed to record access to {} documents", batch.size(), e);
+                    return;
+                }
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+}
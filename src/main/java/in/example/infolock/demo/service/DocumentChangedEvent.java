@@ -0,0 +1,13 @@
+package in.example.infolock.demo.service;
+
+import lombok.Value;
+
+/**
+ * Published inside the transaction that creates, changes or deletes a document.
+ * Listeners that need the committed state use {@code @TransactionalEventListener}.
+ */
+@Value
+public class DocumentChangedEvent {
+    Long documentId;
+    boolean deleted;
+}
@@ -0,0 +1,60 @@
+package in.example.infolock.demo.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload and download meters for {@link DocumentService}. Download latency is
+ * covered by the {@code http.server.requests} timer, which ends once the body
+ * has been streamed.
+ */
+@Component
+public class DocumentMetrics {
+
+    private final Timer uploadsSucceeded;
+    private final Timer uploadsFailed;
+    private final DistributionSummary uploadSize;
+    private final DistributionSummary downloadSize;
+
+    public DocumentMetrics(MeterRegistry meterRegistry) {
+        this.uploadsSucceeded = uploadTimer(meterRegistry, "success");
+        this.uploadsFailed = uploadTimer(meterRegistry, "error");
+        this.uploadSize = DistributionSummary.builder("infolock.documents.upload.size")
+                .description("Original size of uploaded documents")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.downloadSize = DistributionSummary.builder("infolock.documents.download.size")
+                .description("Original size of documents served to owners and share viewers")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    void recordUpload(long nanos, boolean succeeded) {
+        (succeeded ? uploadsSucceeded : uploadsFailed).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordUploadSize(long bytes) {
+        uploadSize.record(bytes);
+    }
+
+    void recordDownloadSize(Long bytes) {
+        // Unknown for documents stored before sizes were recorded
+        if (bytes != null) {
+            downloadSize.record(bytes);
+        }
+    }
+
+    private static Timer uploadTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("infolock.documents.upload.duration")
+                .description("Time to store an uploaded document, including reading the request body")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
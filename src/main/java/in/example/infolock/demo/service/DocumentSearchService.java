@@ -0,0 +1,40 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.exception.InvalidPageRequestException;
+import in.example.infolock.demo.exception.SearchException;
+import in.example.infolock.demo.search.SearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Full-text search over a user's documents, answered from the local search
+ * index. Results reflect changes once the indexer has caught up, usually within
+ * a second of the commit.
+ */
+@Service
+@RequiredArgsConstructor
+public class DocumentSearchService {
+
+    private static final int MAX_RESULTS = 100;
+
+    private final SearchIndex searchIndex;
+
+    public List<DocumentDTO> search(Long userId, String query, int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new InvalidPageRequestException("limit must be between 1 and " + MAX_RESULTS);
+        }
+        if (!StringUtils.hasText(query)) {
+            return List.of();
+        }
+        try {
+            return searchIndex.search(userId, query, limit);
+        } catch (IOException e) {
+            throw new SearchException("Search failed", e);
+        }
+    }
+}
@@ -1,136 +1,330 @@
 package in.example.infolock.demo.service;
 
+import in.example.infolock.demo.dto.DocumentContent;
 import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.DocumentPage;
 import in.example.infolock.demo.entity.Document;
-import in.example.infolock.demo.entity.UserEntity;
 import in.example.infolock.demo.exception.DocumentNotFoundException;
 import in.example.infolock.demo.exception.InvalidFileException;
-import in.example.infolock.demo.exception.UserNotFoundException;
+import in.example.infolock.demo.exception.InvalidPageRequestException;
+import in.example.infolock.demo.exception.StorageException;
+import in.example.infolock.demo.processing.ProcessingOutbox;
 import in.example.infolock.demo.repository.DocumentRepository;
 import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.storage.BlobResource;
+import in.example.infolock.demo.storage.BlobStore;
+import in.example.infolock.demo.storage.CachedBlobResource;
+import in.example.infolock.demo.storage.ContentEncoder;
+import in.example.infolock.demo.storage.EncodedBlob;
+import in.example.infolock.demo.storage.HotContentCache;
+import in.example.infolock.demo.storage.StagedBlob;
+import in.example.infolock.demo.storage.StoredBlob;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DocumentService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final LocalDateTime LATEST_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final LocalDateTime EARLIEST_DATE = LocalDateTime.of(1000, 1, 1, 0, 0);
+
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
+    private final BlobStore blobStore;
+    private final ContentEncoder contentEncoder;
+    private final BlobReferenceService blobReferenceService;
+    private final TransactionTemplate transactionTemplate;
+    private final HotContentCache hotContentCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProcessingOutbox processingOutbox;
+    private final DocumentMetrics documentMetrics;
+    private final DocumentAccessTracker documentAccessTracker;
 
-    @Transactional
     public DocumentDTO uploadDocument(MultipartFile file, String category,
-                                      String filename, String email) throws IOException {
+                                      String filename, Long userId) throws IOException {
         if (file.isEmpty()) {
             throw new InvalidFileException("File cannot be empty");
         }
 
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
-
-        Document document = Document.builder()
-                .fileName(filename)
-                .fileType(file.getContentType())
-                .category(category)
-                .fileData(file.getBytes())
-                .fileSize(file.getSize())
-                .uploadDate(LocalDateTime.now())
-                .user(user)
-                .build();
+        try (InputStream in = file.getInputStream()) {
+            return uploadDocument(in, file.getContentType(), category, filename, userId);
+        }
+    }
 
-        Document savedDoc = documentRepository.save(document);
-        return toDTO(savedDoc);
+    /**
+     * Streams the content into the blob store before opening a transaction, so a
+     * slow or large upload never holds a database connection.
+     */
+    public DocumentDTO uploadDocument(InputStream content, String contentType, String category,
+                                      String filename, Long userId) throws IOException {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            DocumentDTO document = storeDocument(content, contentType, category, filename, userId);
+            documentMetrics.recordUploadSize(document.getFileSize());
+            succeeded = true;
+            return document;
+        } finally {
+            documentMetrics.recordUpload(System.nanoTime() - start, succeeded);
+        }
     }
 
-    @Transactional(readOnly = true)
-    public List<DocumentDTO> getUserDocuments(String email) {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+    private DocumentDTO storeDocument(InputStream content, String contentType, String category,
+                                      String filename, Long userId) throws IOException {
+        EncodedBlob encoded = contentEncoder.stage(content, contentType);
+        StagedBlob staged = encoded.getStaged();
+        try {
+            if (encoded.getOriginalSize() == 0) {
+                throw new InvalidFileException("File cannot be empty");
+            }
+            blobReferenceService.prepare(staged);
+
+            return transactionTemplate.execute(status -> {
+                StoredBlob blob = blobReferenceService.acquire(staged);
+                Document document = Document.builder()
+                        .fileName(filename)
+                        .fileType(contentType)
+                        .category(category)
+                        .contentKey(blob.getKey())
+                        .contentEncoding(encoded.getEncoding())
+                        .fileSize(encoded.getOriginalSize())
+                        .uploadDate(LocalDateTime.now())
+                        .user(userRepository.getReferenceById(userId))
+                        .build();
 
-        return documentRepository.findByUser(user).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+                Document savedDoc = documentRepository.save(document);
+                processingOutbox.enqueue(savedDoc.getId());
+                eventPublisher.publishEvent(new DocumentChangedEvent(savedDoc.getId(), false));
+                return toDTO(savedDoc);
+            });
+        } finally {
+            blobStore.discard(staged);
+        }
     }
 
     @Transactional(readOnly = true)
-    public List<DocumentDTO> getUserDocumentsByCategory(String email, String category) {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+    public List<DocumentDTO> getUserDocuments(Long userId) {
+        return documentRepository.findDtosByUserId(userId);
+    }
 
-        return documentRepository.findByUserAndCategory(user, category).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<DocumentDTO> getUserDocumentsByCategory(Long userId, String category) {
+        return documentRepository.findDtosByUserIdAndCategory(userId, category);
     }
 
+    /**
+     * One keyset page of the user's documents, optionally limited to a category.
+     *
+     * @param sort   "newest" (default) or "oldest", by upload date
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
     @Transactional(readOnly = true)
-    public byte[] downloadUserDocument(Long id, String email) {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+    public DocumentPage getUserDocumentPage(Long userId, String category, String sort, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidPageRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        boolean newestFirst = sort == null || sort.equals("newest");
+        if (!newestFirst && !sort.equals("oldest")) {
+            throw new InvalidPageRequestException("sort must be 'newest' or 'oldest'");
+        }
 
-        Document document = documentRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+        LocalDateTime uploadDate;
+        Long id;
+        if (cursor == null) {
+            // Sentinels that sort before every row in the requested direction
+            uploadDate = newestFirst ? LATEST_DATE : EARLIEST_DATE;
+            id = newestFirst ? Long.MAX_VALUE : Long.MIN_VALUE;
+        } else {
+            String[] position = decodeCursor(cursor);
+            uploadDate = LocalDateTime.parse(position[0]);
+            id = Long.parseLong(position[1]);
+        }
 
-        return document.getFileData();
+        // One extra row tells whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<DocumentDTO> rows;
+        if (category == null) {
+            rows = newestFirst
+                    ? documentRepository.findPageNewestFirst(userId, uploadDate, id, fetch)
+                    : documentRepository.findPageOldestFirst(userId, uploadDate, id, fetch);
+        } else {
+            rows = newestFirst
+                    ? documentRepository.findCategoryPageNewestFirst(userId, category, uploadDate, id, fetch)
+                    : documentRepository.findCategoryPageOldestFirst(userId, category, uploadDate, id, fetch);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<DocumentDTO> documents = hasMore ? rows.subList(0, limit) : rows;
+        DocumentDTO last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+        return DocumentPage.builder()
+                .documents(documents)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encodeCursor(last) : null)
+                .build();
     }
 
     @Transactional(readOnly = true)
-    public DocumentDTO getDocumentById(Long id, String email) {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + email));
-
-        Document document = documentRepository.findByIdAndUser(id, user)
+    public DocumentContent downloadUserDocument(Long id, Long userId) {
+        Document document = documentRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
 
-        return toDTO(document);
+        documentMetrics.recordDownloadSize(document.getFileSize());
+        documentAccessTracker.record(document.getId());
+        return toContent(document);
     }
 
-    @Transactional
-    public void deleteDocument(Long id, String email) {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+    public DocumentContent toContent(Document document) {
+        Resource encoded = null;
+        if (document.getContentEncoding() != null) {
+            try {
+                encoded = new BlobResource(blobStore, document.getContentKey(), blobStore.size(document.getContentKey()));
+            } catch (IOException e) {
+                throw new StorageException("Failed to read content for document id: " + document.getId(), e);
+            }
+        }
+        return new DocumentContent(toDTO(document), contentResource(document), document.getContentKey(),
+                document.getContentEncoding(), encoded);
+    }
+
+    /**
+     * Like {@link #toContent(Document)}, but serves small documents from the
+     * {@link HotContentCache}, since a popular share link is viewed far more often
+     * than its document changes.
+     */
+    public DocumentContent toSharedContent(Document document) {
+        documentMetrics.recordDownloadSize(document.getFileSize());
+        documentAccessTracker.record(document.getId());
+        if (document.getContentKey() == null) {
+            return toContent(document);
+        }
 
-        if (!documentRepository.existsByIdAndUser(id, user)) {
-            throw new DocumentNotFoundException("Document not found with id: " + id);
+        byte[] stored;
+        try {
+            stored = hotContentCache.get(document.getContentKey());
+        } catch (IOException e) {
+            throw new StorageException("Failed to read content for document id: " + document.getId(), e);
         }
-        documentRepository.deleteById(id);
+        if (stored == null) {
+            return toContent(document);
+        }
+
+        Resource content = new CachedBlobResource(stored, document.getFileSize(), document.getContentEncoding());
+        Resource encoded = document.getContentEncoding() != null ? new CachedBlobResource(stored) : null;
+        return new DocumentContent(toDTO(document), content, document.getContentKey(),
+                document.getContentEncoding(), encoded);
     }
 
-    @Transactional
-    public DocumentDTO updateDocument(Long id, MultipartFile file,
-                                      String category, String filename, String email) throws IOException {
-        UserEntity user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
+    public Resource contentResource(Document document) {
+        if (document.getContentKey() == null) {
+            throw new StorageException("Content not migrated for document id: " + document.getId());
+        }
+        return new BlobResource(blobStore, document.getContentKey(), document.getFileSize(),
+                document.getContentEncoding());
+    }
 
-        Document document = documentRepository.findByIdAndUser(id, user)
+    public InputStream openContent(Document document) throws IOException {
+        return contentResource(document).getInputStream();
+    }
+
+    @Transactional(readOnly = true)
+    public DocumentDTO getDocumentById(Long id, Long userId) {
+        Document document = documentRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
 
-        if (filename != null && !filename.isEmpty()) {
-            document.setFileName(filename);
-        }
+        return toDTO(document);
+    }
 
+    @Transactional
+    public void deleteDocument(Long id, Long userId) {
+        Document document = documentRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+        documentRepository.delete(document);
+        blobReferenceService.release(document.getContentKey());
+        eventPublisher.publishEvent(new DocumentChangedEvent(id, true));
+    }
+
+    public DocumentDTO updateDocument(Long id, MultipartFile file,
+                                      String category, String filename, Long userId) throws IOException {
+        EncodedBlob encoded = null;
         if (file != null && !file.isEmpty()) {
-            document.setFileType(file.getContentType());
-            document.setFileData(file.getBytes());
-            document.setFileSize(file.getSize());
+            try (InputStream in = file.getInputStream()) {
+                encoded = contentEncoder.stage(in, file.getContentType());
+            }
+            blobReferenceService.prepare(encoded.getStaged());
         }
+        EncodedBlob newContent = encoded;
+
+        try {
+            return transactionTemplate.execute(status -> {
+                Document document = documentRepository.findByIdAndUserId(id, userId)
+                        .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+
+                if (filename != null && !filename.isEmpty()) {
+                    document.setFileName(filename);
+                }
 
-        if (category != null && !category.isEmpty()) {
-            document.setCategory(category);
+                if (newContent != null) {
+                    StoredBlob blob = blobReferenceService.acquire(newContent.getStaged());
+                    blobReferenceService.release(document.getContentKey());
+                    document.setFileType(file.getContentType());
+                    document.setContentKey(blob.getKey());
+                    document.setContentEncoding(newContent.getEncoding());
+                    document.setFileSize(newContent.getOriginalSize());
+                    processingOutbox.enqueue(id);
+                }
+
+                if (category != null && !category.isEmpty()) {
+                    document.setCategory(category);
+                }
+
+                document.setUploadDate(LocalDateTime.now());
+                Document updatedDoc = documentRepository.save(document);
+                eventPublisher.publishEvent(new DocumentChangedEvent(id, false));
+                return toDTO(updatedDoc);
+            });
+        } finally {
+            if (newContent != null) {
+                blobStore.discard(newContent.getStaged());
+            }
         }
+    }
 
-        document.setUploadDate(LocalDateTime.now());
-        Document updatedDoc = documentRepository.save(document);
-        return toDTO(updatedDoc);
+    private static String encodeCursor(DocumentDTO last) {
+        String position = last.getUploadDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException(cursor);
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPageRequestException("Invalid cursor: " + cursor);
+        }
     }
 
-    private DocumentDTO toDTO(Document document) {
+    public DocumentDTO toDTO(Document document) {
         return DocumentDTO.builder()
                 .id(document.getId())
                 .fileName(document.getFileName())
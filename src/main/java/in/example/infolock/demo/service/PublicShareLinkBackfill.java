@@ -0,0 +1,49 @@
+package in.example.infolock.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-time backfill of {@code share_links.public_document_id} for public links
+ * created before the column existed. Lookups of a document's public link read
+ * only that column, and its unique key keeps a document to one public link, so
+ * the backfill runs while the context starts, before the web server takes
+ * requests. Rerunning it finds nothing to do.
+ *
+ * Documents that were shared publicly more than once keep their newest public
+ * link, or the one that already holds the column. The others stay viewable under
+ * their tokens but are no longer public.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PublicShareLinkBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void run() {
+        transactionTemplate.executeWithoutResult(status -> {
+            // MySQL cannot read the table it updates in a subquery unless it is wrapped in a derived table
+            int demoted = jdbcTemplate.update(
+                    "UPDATE share_links SET is_public = false " +
+                            "WHERE is_public = true AND is_active = true AND public_document_id IS NULL " +
+                            "AND (id NOT IN (SELECT kept.id FROM (SELECT MAX(id) AS id FROM share_links " +
+                            "WHERE is_public = true AND is_active = true AND public_document_id IS NULL " +
+                            "GROUP BY document_id) kept) " +
+                            "OR document_id IN (SELECT claimed.document_id FROM (SELECT public_document_id AS document_id " +
+                            "FROM share_links WHERE public_document_id IS NOT NULL) claimed))");
+            int backfilled = jdbcTemplate.update(
+                    "UPDATE share_links SET public_document_id = document_id " +
+                            "WHERE is_public = true AND is_active = true AND public_document_id IS NULL");
+            if (demoted > 0 || backfilled > 0) {
+                log.info("Backfilled {} public share links, {} duplicates are no longer public", backfilled, demoted);
+            }
+        });
+    }
+}
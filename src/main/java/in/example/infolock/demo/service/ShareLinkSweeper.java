@@ -0,0 +1,63 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Deletes share links that can never be viewed again: expired ones and
+ * deactivated ones. Each batch is deleted by primary key in its own short
+ * transaction, so the sweep never holds locks across more than one batch and
+ * viewers of live links are not held up.
+ */
+@Slf4j
+@Component
+public class ShareLinkSweeper {
+
+    private final ShareLinkRepository shareLinkRepository;
+    private final Counter purged;
+
+    @Value("${app.share.sweep-batch-size:500}")
+    private int batchSize;
+
+    public ShareLinkSweeper(ShareLinkRepository shareLinkRepository, MeterRegistry meterRegistry) {
+        this.shareLinkRepository = shareLinkRepository;
+        this.purged = Counter.builder("infolock.share.links.purged")
+                .description("Expired or deactivated share links deleted by the sweeper")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.share.sweep-interval:PT15M}",
+            initialDelayString = "${app.share.sweep-interval:PT15M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = purge(() -> shareLinkRepository.findExpiredIds(now, Limit.of(batchSize)))
+                + purge(() -> shareLinkRepository.findInactiveIds(Limit.of(batchSize)));
+        if (deleted > 0) {
+            log.info("Purged {} expired or deactivated share links", deleted);
+        }
+    }
+
+    private int purge(Supplier<List<Long>> nextBatch) {
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = nextBatch.get();
+            if (!ids.isEmpty()) {
+                int deleted = shareLinkRepository.deleteAllByIdIn(ids);
+                purged.increment(deleted);
+                total += deleted;
+            }
+        } while (ids.size() == batchSize);
+        return total;
+    }
+}
@@ -6,20 +6,33 @@ import in.example.infolock.demo.entity.Document;
 import in.example.infolock.demo.entity.ShareLink;
 import in.example.infolock.demo.repository.DocumentRepository;
 import in.example.infolock.demo.repository.ShareLinkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ShareService {
 
     private final ShareLinkRepository shareLinkRepository;
     private final DocumentRepository documentRepository;
+    private final ShareTokenIndex shareTokenIndex;
+    private final MeterRegistry meterRegistry;
+
+    // Views of unlimited links not yet written to the database, keyed by link id
+    private final Map<Long, Long> pendingViews = new ConcurrentHashMap<>();
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -28,16 +41,26 @@ public class ShareService {
     private String frontendUrl;
 
     public ShareResponse createShareLink(ShareRequest shareRequest) {
-        Document document = documentRepository.findById(shareRequest.getDocumentId())
-                .orElseThrow(() -> new RuntimeException("Document not found"));
-
-        Optional<ShareLink> existingShare = shareLinkRepository
-                .findByDocumentIdAndIsPublic(document.getId(), true);
+        return createShareLink(shareRequest, null);
+    }
 
-        if (existingShare.isPresent() && Boolean.TRUE.equals(shareRequest.getIsPublic())) {
-            return convertToResponse(existingShare.get());
+    /**
+     * Creates a share link, or returns the existing one when the request repeats
+     * an earlier idempotency key for the document, or asks for a public link the
+     * document already has. Both cases cost one indexed lookup. Concurrent
+     * duplicates are settled by the unique keys on share_links: the losing insert
+     * fails and returns the winner's link.
+     */
+    public ShareResponse createShareLink(ShareRequest shareRequest, String idempotencyKey) {
+        Long documentId = shareRequest.getDocumentId();
+        boolean isPublic = Boolean.TRUE.equals(shareRequest.getIsPublic());
+        Optional<ShareLink> existing = findExisting(documentId, isPublic, idempotencyKey);
+        if (existing.isPresent()) {
+            return convertToResponse(existing.get());
         }
 
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new RuntimeException("Document not found"));
         ShareLink shareLink = ShareLink.builder()
                 .token(generateUniqueToken())
                 .document(document)
@@ -47,37 +70,131 @@ public class ShareService {
                 .maxViews(shareRequest.getMaxViews())
                 .viewCount(0)
                 .isActive(true)
+                .idempotencyKey(idempotencyKey)
                 .build();
 
-        ShareLink savedShareLink = shareLinkRepository.save(shareLink);
-        return convertToResponse(savedShareLink);
+        try {
+            return convertToResponse(insert(shareLink));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key, or for the same public link, got there first
+            return convertToResponse(findExisting(documentId, isPublic, idempotencyKey).orElseThrow(() -> e));
+        }
     }
 
-    public Optional<Document> getDocumentByToken(String token) {
-        return shareLinkRepository.findByToken(token)
-                .filter(ShareLink::getIsActive)
-                .filter(shareLink -> isNotExpired(shareLink))
-                .filter(shareLink -> isWithinViewLimit(shareLink))
-                .map(shareLink -> {
-                    shareLink.setViewCount(shareLink.getViewCount() + 1);
-                    shareLinkRepository.save(shareLink);
-                    return shareLink.getDocument();
-                });
+    /**
+     * Resolves a share token to a link that may be viewed. Expired and used-up
+     * links, and tokens recently found not to exist, are rejected from the
+     * {@link ShareTokenIndex} without a query. A token the index does not know is
+     * looked up in the database, since it may have been created on another node.
+     * A viewable link is confirmed, and its document loaded, by one query.
+     * Rejections are counted in {@code infolock.share.views} by reason.
+     */
+    public Optional<ShareLink> findViewableLink(String token) {
+        if (token == null) {
+            countView("not_found");
+            return Optional.empty();
+        }
+        ShareTokenIndex.Entry entry = shareTokenIndex.find(token);
+        if (entry == null) {
+            String rejection = shareTokenIndex.rejection(token);
+            if (rejection == null) {
+                ShareLink stored = shareLinkRepository.findByToken(token).orElse(null);
+                if (stored != null && Boolean.TRUE.equals(stored.getIsActive())) {
+                    shareTokenIndex.add(stored);
+                    entry = shareTokenIndex.find(token);
+                } else {
+                    rejection = stored == null ? "not_found" : "inactive";
+                    shareTokenIndex.reject(token, rejection);
+                }
+            }
+            if (entry == null) {
+                countView(rejection);
+                return Optional.empty();
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (entry.isExpired(now)) {
+            shareTokenIndex.reject(token, "expired");
+            countView("expired");
+            return Optional.empty();
+        }
+        if (entry.exhausted()) {
+            countView("limit_reached");
+            return Optional.empty();
+        }
+
+        Optional<ShareLink> shareLink = shareLinkRepository.findViewable(entry.linkId(), now);
+        if (shareLink.isEmpty()) {
+            // Changed since it was indexed, possibly on another node
+            turnAway(token, entry.linkId(), now);
+        }
+        return shareLink;
+    }
+
+    /**
+     * Counts a view and reports whether it may be served. Limited links are
+     * admitted by a conditional update, so maxViews holds exactly under concurrent
+     * viewers. Unlimited links only need a count, which is buffered in memory and
+     * written in batches by {@link #flushPendingViews()}.
+     */
+    public boolean admitView(ShareLink shareLink) {
+        if (shareLink.getMaxViews() == null) {
+            pendingViews.merge(shareLink.getId(), 1L, Long::sum);
+        } else {
+            LocalDateTime now = LocalDateTime.now();
+            if (shareLinkRepository.admitView(shareLink.getId(), now) == 0) {
+                // Used up, or deactivated or expired since it was looked up
+                turnAway(shareLink.getToken(), shareLink.getId(), now);
+                return false;
+            }
+        }
+        countView("admitted");
+        return true;
     }
 
-    public boolean isDocumentOwner(Long documentId, String username) {
-        System.out.println("Checking ownership for documentId: " + documentId + ", username: " + username);
-        return documentRepository.findById(documentId)
-                .map(document -> {
-                    boolean result = document.getUser().getUsername().equals(username);
-                    System.out.println("Document owner: " + document.getUser().getUsername() + ", isOwner: " + result);
-                    return result;
-                })
-                .orElse(false);
+    /**
+     * Records why a link that failed a database check cannot be viewed, read back
+     * from the link itself, and counts the rejection.
+     */
+    private void turnAway(String token, Long linkId, LocalDateTime now) {
+        String reason = shareLinkRepository.findById(linkId)
+                .map(stored -> !Boolean.TRUE.equals(stored.getIsActive()) ? "inactive"
+                        : stored.getExpiryDate() != null && !stored.getExpiryDate().isAfter(now) ? "expired"
+                        : "limit_reached")
+                .orElse("not_found");
+        if (reason.equals("limit_reached")) {
+            shareTokenIndex.markExhausted(token);
+        } else {
+            shareTokenIndex.reject(token, reason);
+        }
+        countView(reason);
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.share.view-flush-interval:PT5S}")
+    public void flushPendingViews() {
+        for (Long id : pendingViews.keySet()) {
+            // Counts are taken and removed in one step, so a view added meanwhile starts a new count
+            Long views = pendingViews.remove(id);
+            if (views == null) {
+                continue;
+            }
+            try {
+                shareLinkRepository.addViews(id, Math.toIntExact(views));
+            } catch (RuntimeException e) {
+                pendingViews.merge(id, views, Long::sum);
+                log.warn("Failed to flush {} views for share link {}", views, id, e);
+            }
+        }
+    }
+
+    public boolean isDocumentOwner(Long documentId, Long userId) {
+        return documentRepository.existsByIdAndUserId(documentId, userId);
     }
 
     public void toggleDocumentPublic(Long documentId, boolean isPublic) {
-        Optional<ShareLink> existingShare = shareLinkRepository.findByDocumentIdAndIsPublic(documentId, true);
+        Optional<ShareLink> existingShare = shareLinkRepository.findByPublicDocumentId(documentId);
         if (existingShare.isPresent()) {
             ShareLink shareLink = existingShare.get();
             shareLink.setIsPublic(isPublic);
@@ -95,7 +212,14 @@ public class ShareService {
                     .viewCount(0)
                     .isActive(true)
                     .build();
-            shareLinkRepository.save(shareLink);
+            try {
+                insert(shareLink);
+            } catch (DataIntegrityViolationException e) {
+                // Made public concurrently; one public link is all we need
+                if (!shareLinkRepository.existsByPublicDocumentId(documentId)) {
+                    throw e;
+                }
+            }
         }
     }
 
@@ -104,32 +228,47 @@ public class ShareService {
                 .ifPresent(shareLink -> {
                     shareLink.setIsActive(false);
                     shareLinkRepository.save(shareLink);
+                    shareTokenIndex.reject(token, "inactive");
                 });
     }
 
     public boolean isDocumentPublic(Long documentId) {
-        return shareLinkRepository.existsByDocumentIdAndIsPublic(documentId, true);
+        return shareLinkRepository.existsByPublicDocumentId(documentId);
     }
 
-    private String generateUniqueToken() {
+    String generateUniqueToken() {
         return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
     }
 
-    private LocalDateTime calculateExpiryDate(Integer expiryDays) {
-        if (expiryDays == null || expiryDays <= 0) {
-            return null;
+    private Optional<ShareLink> findExisting(Long documentId, boolean isPublic, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<ShareLink> repeated = shareLinkRepository.findByDocumentIdAndIdempotencyKey(documentId, idempotencyKey);
+            if (repeated.isPresent()) {
+                return repeated;
+            }
         }
-        return LocalDateTime.now().plusDays(expiryDays);
+        return isPublic ? shareLinkRepository.findByPublicDocumentId(documentId) : Optional.empty();
     }
 
-    private boolean isNotExpired(ShareLink shareLink) {
-        return shareLink.getExpiryDate() == null ||
-                LocalDateTime.now().isBefore(shareLink.getExpiryDate());
+    private ShareLink insert(ShareLink shareLink) {
+        ShareLink saved = shareLinkRepository.save(shareLink);
+        shareTokenIndex.add(saved);
+        return saved;
     }
 
-    private boolean isWithinViewLimit(ShareLink shareLink) {
-        return shareLink.getMaxViews() == null ||
-                shareLink.getViewCount() < shareLink.getMaxViews();
+    /**
+     * Counts a share view by outcome: {@code admitted}, or why it was turned away,
+     * {@code not_found}, {@code inactive}, {@code expired} or {@code limit_reached}.
+     */
+    private void countView(String outcome) {
+        meterRegistry.counter("infolock.share.views", "outcome", outcome).increment();
+    }
+
+    private LocalDateTime calculateExpiryDate(Integer expiryDays) {
+        if (expiryDays == null || expiryDays <= 0) {
+            return null;
+        }
+        return LocalDateTime.now().plusDays(expiryDays);
     }
 
     private ShareResponse convertToResponse(ShareLink shareLink) {
@@ -0,0 +1,139 @@
+package in.example.infolock.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of active share tokens, so the public share endpoint can reject
+ * expired and used-up links, and repeated unknown tokens, without a query. It is
+ * loaded before the web server starts and updated by this node's
+ * {@link ShareService}.
+ *
+ * The index is not authoritative. Links are also created on other nodes, and
+ * deactivated or deleted there, by {@link ShareLinkSweeper} and by
+ * {@link BulkDocumentService}. A miss is therefore checked against the database,
+ * and tokens found not to be viewable are remembered for a short, bounded time in
+ * a negative cache. Each view of an indexed link is still confirmed by a query
+ * before anything is served.
+ */
+@Slf4j
+@Component
+public class ShareTokenIndex {
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final ShareLinkRepository shareLinkRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Tokens known not to be viewable, with the reason they were turned away
+    private final Cache<String, String> rejected;
+
+    public ShareTokenIndex(ShareLinkRepository shareLinkRepository, MeterRegistry meterRegistry,
+                           @Value("${app.share.token-index.negative-ttl:PT5S}") Duration negativeTtl,
+                           @Value("${app.share.token-index.negative-max-size:100000}") long negativeMaxSize) {
+        this.shareLinkRepository = shareLinkRepository;
+        this.rejected = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+        Gauge.builder("infolock.share.token.index.size", entries, Map::size)
+                .description("Active share tokens held in memory")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        Long after = 0L;
+        List<ShareLink> page;
+        do {
+            page = shareLinkRepository.findActiveAfter(after, now, Limit.of(LOAD_PAGE_SIZE));
+            for (ShareLink shareLink : page) {
+                add(shareLink);
+                after = shareLink.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Loaded {} active share tokens", entries.size());
+    }
+
+    /**
+     * Returns the indexed link for a token, or null when this node has not indexed
+     * an active link with it.
+     */
+    public Entry find(String token) {
+        return token == null ? null : entries.get(token);
+    }
+
+    /**
+     * Why a token was recently turned away, or null if it has not been, in which
+     * case a miss has to be checked against the database.
+     */
+    public String rejection(String token) {
+        return rejected.getIfPresent(token);
+    }
+
+    /**
+     * Drops a token that cannot be viewed and remembers why for a short while.
+     */
+    public void reject(String token, String reason) {
+        entries.remove(token);
+        rejected.put(token, reason);
+    }
+
+    public void add(ShareLink shareLink) {
+        rejected.invalidate(shareLink.getToken());
+        if (!Boolean.TRUE.equals(shareLink.getIsActive())) {
+            entries.remove(shareLink.getToken());
+            return;
+        }
+        boolean exhausted = shareLink.getMaxViews() != null && shareLink.getViewCount() != null
+                && shareLink.getViewCount() >= shareLink.getMaxViews();
+        entries.put(shareLink.getToken(), new Entry(shareLink.getId(), shareLink.getDocument().getId(),
+                shareLink.getExpiryDate(), shareLink.getMaxViews(), exhausted));
+    }
+
+    public void remove(String token) {
+        entries.remove(token);
+    }
+
+    /**
+     * Records that a limited link has used up its views, which cannot be undone,
+     * so later requests are turned away without trying to admit them.
+     */
+    public void markExhausted(String token) {
+        entries.computeIfPresent(token, (key, entry) -> entry.withExhausted());
+    }
+
+    @Scheduled(fixedDelayString = "${app.share.token-index.evict-interval:PT1H}",
+            initialDelayString = "${app.share.token-index.evict-interval:PT1H}")
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    public record Entry(Long linkId, Long documentId, LocalDateTime expiryDate, Integer maxViews, boolean exhausted) {
+
+        public boolean isExpired(LocalDateTime now) {
+            return expiryDate != null && !now.isBefore(expiryDate);
+        }
+
+        Entry withExhausted() {
+            return new Entry(linkId, documentId, expiryDate, maxViews, true);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.StorageStatsDTO;
+import in.example.infolock.demo.repository.ContentBlobRepository;
+import in.example.infolock.demo.repository.DocumentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deduplication and compression figures for storage sizing. Each is measured on
+ * its own: deduplication against the original size of the distinct contents,
+ * compression as what the blob store holds of those. The aggregates scan whole tables, so
+ * the snapshot is cached and shared by the actuator endpoint and the Micrometer gauges.
+ */
+@Service
+public class StorageStatsService {
+
+    private final DocumentRepository documentRepository;
+    private final ContentBlobRepository contentBlobRepository;
+    private final Duration refreshInterval;
+
+    private volatile StorageStatsDTO snapshot;
+    private volatile Instant snapshotTime = Instant.EPOCH;
+
+    public StorageStatsService(DocumentRepository documentRepository,
+                               ContentBlobRepository contentBlobRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.storage.stats-refresh:PT1M}") Duration refreshInterval) {
+        this.documentRepository = documentRepository;
+        this.contentBlobRepository = contentBlobRepository;
+        this.refreshInterval = refreshInterval;
+
+        Gauge.builder("infolock.storage.logical.bytes", this, s -> s.getStats().getLogicalBytes())
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("infolock.storage.unique.bytes", this, s -> s.getStats().getUniqueBytes())
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("infolock.storage.physical.bytes", this, s -> s.getStats().getPhysicalBytes())
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("infolock.storage.saved.bytes", this, s -> s.getStats().getBytesSaved())
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("infolock.storage.dedup.ratio", this, s -> s.getStats().getDedupRatio())
+                .register(meterRegistry);
+        Gauge.builder("infolock.storage.compression.ratio", this, s -> s.getStats().getCompressionRatio())
+                .register(meterRegistry);
+    }
+
+    public StorageStatsDTO getStats() {
+        if (snapshot == null || Instant.now().isAfter(snapshotTime.plus(refreshInterval))) {
+            snapshot = computeStats();
+            snapshotTime = Instant.now();
+        }
+        return snapshot;
+    }
+
+    private StorageStatsDTO computeStats() {
+        long logical = documentRepository.sumFileSize();
+        long unique = documentRepository.sumDistinctContentSize();
+        long physical = contentBlobRepository.sumReferencedSize();
+        return StorageStatsDTO.builder()
+                .documentCount(documentRepository.count())
+                .blobCount(contentBlobRepository.countReferenced())
+                .logicalBytes(logical)
+                .uniqueBytes(unique)
+                .physicalBytes(physical)
+                .bytesSaved(logical - physical)
+                .dedupRatio(unique == 0 ? 1.0 : (double) logical / unique)
+                .compressionRatio(physical == 0 ? 1.0 : (double) unique / physical)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.entity.ContentBlob;
+import in.example.infolock.demo.repository.ContentBlobRepository;
+import in.example.infolock.demo.storage.ArchiveStore;
+import in.example.infolock.demo.storage.TieredBlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves blobs that nobody has uploaded or read for {@code cold-after} from the
+ * hot tier into archive segments, and brings archived blobs back once they are
+ * read often again.
+ *
+ * Every move copies first, flips {@link ContentBlob#getArchived()} under the
+ * content_blobs row lock, and deletes the old copy only after that commits. A
+ * crash in between leaves an extra copy, never a missing one; startup drops
+ * archive entries the database does not know about.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.storage.tiering.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageTieringService implements ApplicationRunner {
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final TieredBlobStore tieredBlobStore;
+    private final ArchiveStore archiveStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final Counter promoted;
+
+    @Value("${app.storage.tiering.cold-after:P7D}")
+    private Duration coldAfter;
+
+    @Value("${app.storage.tiering.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.storage.tiering.promote-after-reads:3}")
+    private int promoteAfterReads;
+
+    @Value("${app.storage.archive.compaction-min-garbage:0.5}")
+    private double compactionMinGarbage;
+
+    public StorageTieringService(ContentBlobRepository contentBlobRepository, TieredBlobStore tieredBlobStore,
+                                 ArchiveStore archiveStore, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.contentBlobRepository = contentBlobRepository;
+        this.tieredBlobStore = tieredBlobStore;
+        this.archiveStore = archiveStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = Counter.builder("infolock.storage.tiering.archived")
+                .description("Blobs moved into the archive tier")
+                .register(meterRegistry);
+        this.promoted = Counter.builder("infolock.storage.tiering.promoted")
+                .description("Blobs moved back into the hot tier")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Set<String> keys = new HashSet<>(contentBlobRepository.findArchivedKeys());
+        int dropped = archiveStore.retainOnly(keys);
+        if (dropped > 0) {
+            log.info("Dropped {} archive entries left by interrupted moves", dropped);
+        }
+        keys.stream()
+                .filter(key -> !tieredBlobStore.exists(key))
+                .forEach(key -> log.error("Archived blob {} is missing from both tiers", key));
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.tiering.interval:PT1H}",
+            initialDelayString = "${app.storage.tiering.interval:PT1H}")
+    public void moveColdBlobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(coldAfter);
+        int moved = 0;
+        String after = "";
+        List<String> keys;
+        do {
+            keys = contentBlobRepository.findColdKeys(cutoff, archiveStore.maxBlobSize(), after, Limit.of(batchSize));
+            for (String key : keys) {
+                after = key;
+                try {
+                    if (archive(key)) {
+                        moved++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to archive blob {}", key, e);
+                }
+            }
+        } while (keys.size() == batchSize);
+
+        if (moved > 0) {
+            log.info("Archived {} cold blobs", moved);
+        }
+        try {
+            archiveStore.compact(compactionMinGarbage);
+        } catch (IOException e) {
+            log.warn("Failed to compact archive segments", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.tiering.promote-interval:PT1M}",
+            initialDelayString = "${app.storage.tiering.promote-interval:PT1M}")
+    public void promoteRereadBlobs() {
+        for (String key : archiveStore.frequentlyRead(promoteAfterReads)) {
+            try {
+                promote(key);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to promote blob {}", key, e);
+            }
+        }
+    }
+
+    private boolean archive(String key) throws IOException {
+        tieredBlobStore.copyToArchive(key);
+        Boolean marked = transactionTemplate.execute(status -> contentBlobRepository.findForUpdate(key)
+                .filter(blob -> blob.getRefCount() > 0)
+                .map(blob -> {
+                    blob.setArchived(true);
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(marked)) {
+            tieredBlobStore.deleteHotCopy(key);
+            archived.increment();
+            return true;
+        }
+        // Released while we were copying; reclaim deletes the hot copy
+        tieredBlobStore.dropArchiveCopy(key);
+        return false;
+    }
+
+    private void promote(String key) throws IOException {
+        tieredBlobStore.copyToHot(key);
+        Boolean marked = transactionTemplate.execute(status -> contentBlobRepository.findForUpdate(key)
+                .map(blob -> {
+                    blob.setArchived(false);
+                    return true;
+                })
+                .orElse(false));
+        if (Boolean.TRUE.equals(marked)) {
+            tieredBlobStore.dropArchiveCopy(key);
+            promoted.increment();
+        } else {
+            // Reclaimed while we were copying
+            tieredBlobStore.delete(key);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentThumbnail;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.exception.DocumentNotFoundException;
+import in.example.infolock.demo.exception.StorageException;
+import in.example.infolock.demo.processing.ProcessingOutbox;
+import in.example.infolock.demo.processing.ThumbnailRenderer;
+import in.example.infolock.demo.processing.ThumbnailStage;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ProcessingTaskRepository;
+import in.example.infolock.demo.storage.ThumbnailStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Serves previews rendered by {@link ThumbnailStage}. Previews are never rendered
+ * on the request thread; a missing one is queued and the caller shows a
+ * placeholder until it is ready.
+ */
+@Service
+@RequiredArgsConstructor
+public class ThumbnailService {
+
+    private final DocumentRepository documentRepository;
+    private final ProcessingTaskRepository processingTaskRepository;
+    private final ProcessingOutbox processingOutbox;
+    private final ThumbnailStore thumbnailStore;
+    private final ThumbnailRenderer thumbnailRenderer;
+
+    @Transactional
+    public Optional<DocumentThumbnail> getThumbnail(Long id, Long userId) {
+        Document document = documentRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+        String key = document.getContentKey();
+        if (key == null || !thumbnailRenderer.supports(document.getFileType(), document.getFileName())) {
+            return Optional.empty();
+        }
+
+        byte[] image;
+        try {
+            image = thumbnailStore.get(key);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read thumbnail for document id: " + id, e);
+        }
+        if (image != null) {
+            return Optional.of(new DocumentThumbnail(key, image));
+        }
+
+        // Evicted from disk, or rendering is still queued; failed renders are not retried from here
+        if (!processingTaskRepository.existsByDocumentIdAndStage(id, ThumbnailStage.NAME)) {
+            processingOutbox.enqueue(id, ThumbnailStage.NAME);
+        }
+        return Optional.empty();
+    }
+}
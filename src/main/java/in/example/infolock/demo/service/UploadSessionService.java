@@ -0,0 +1,225 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.UploadPartDTO;
+import in.example.infolock.demo.dto.UploadSessionRequest;
+import in.example.infolock.demo.dto.UploadSessionResponse;
+import in.example.infolock.demo.entity.UploadSession;
+import in.example.infolock.demo.exception.InvalidFileException;
+import in.example.infolock.demo.exception.UploadSessionNotFoundException;
+import in.example.infolock.demo.exception.UploadTooLargeException;
+import in.example.infolock.demo.repository.UploadSessionRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.storage.BoundedInputStream;
+import in.example.infolock.demo.storage.StagedPart;
+import in.example.infolock.demo.storage.UploadStagingArea;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Resumable uploads: a session is created up front, numbered parts are PUT in any
+ * order (and concurrently), and completion streams the staged parts in order into
+ * the blob store as a single {@link in.example.infolock.demo.entity.Document}.
+ * The session and its parts are kept until that document is committed, so a
+ * failed completion can be retried.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionService {
+
+    private static final int MAX_PARTS = 10_000;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UserRepository userRepository;
+    private final UploadStagingArea stagingArea;
+    private final DocumentService documentService;
+
+    @Value("${app.uploads.session-ttl:PT24H}")
+    private Duration sessionTtl;
+
+    @Value("${app.uploads.completion-timeout:PT1H}")
+    private Duration completionTimeout;
+
+    @Value("${app.uploads.max-part-size:256MB}")
+    private DataSize maxPartSize;
+
+    @Value("${app.uploads.max-file-size:5GB}")
+    private DataSize maxFileSize;
+
+    @Transactional
+    public UploadSessionResponse createSession(UploadSessionRequest request, Long userId) {
+        if (!StringUtils.hasText(request.getFileName()) || !StringUtils.hasText(request.getCategory())) {
+            throw new InvalidFileException("fileName and category are required");
+        }
+        if (request.getTotalParts() != null && (request.getTotalParts() < 1 || request.getTotalParts() > MAX_PARTS)) {
+            throw new InvalidFileException("totalParts must be between 1 and " + MAX_PARTS);
+        }
+        if (request.getTotalSize() != null && request.getTotalSize() > maxFileSize.toBytes()) {
+            throw new UploadTooLargeException("Upload exceeds the maximum size of " + maxFileSize.toBytes() + " bytes");
+        }
+
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .user(userRepository.getReferenceById(userId))
+                .fileName(request.getFileName())
+                .fileType(StringUtils.hasText(request.getFileType()) ?
+                        request.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                .category(request.getCategory())
+                .totalSize(request.getTotalSize())
+                .totalParts(request.getTotalParts())
+                .createdDate(LocalDateTime.now())
+                .lastActivity(LocalDateTime.now())
+                .build();
+
+        return toResponse(uploadSessionRepository.save(session), List.of());
+    }
+
+    public UploadPartDTO uploadPart(String sessionId, int partNumber, InputStream content,
+                                    String sha256, Long userId) throws IOException {
+        UploadSession session = findSession(sessionId, userId);
+        int maxPart = session.getTotalParts() != null ? session.getTotalParts() : MAX_PARTS;
+        if (partNumber < 1 || partNumber > maxPart) {
+            throw new InvalidFileException("Part number must be between 1 and " + maxPart);
+        }
+        if (session.getCompletingSince() != null) {
+            throw new InvalidFileException("Upload session is being completed: " + sessionId);
+        }
+
+        // Bounded by both the part limit and what is left of the session limit
+        long otherParts = stagingArea.listParts(sessionId).stream()
+                .filter(p -> p.getPartNumber() != partNumber)
+                .mapToLong(StagedPart::getSize)
+                .sum();
+        long limit = Math.min(maxPartSize.toBytes(), maxFileSize.toBytes() - otherParts);
+        if (limit < 0) {
+            throw new UploadTooLargeException("Upload exceeds the maximum size of " + maxFileSize.toBytes() + " bytes");
+        }
+
+        StagedPart part = stagingArea.writePart(sessionId, partNumber, new BoundedInputStream(content, limit), sha256);
+        uploadSessionRepository.touch(sessionId, LocalDateTime.now());
+        return toDTO(part);
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getSession(String sessionId, Long userId) throws IOException {
+        UploadSession session = findSession(sessionId, userId);
+        return toResponse(session, stagingArea.listParts(sessionId));
+    }
+
+    public DocumentDTO completeSession(String sessionId, Long userId) throws IOException {
+        UploadSession session = findSession(sessionId, userId);
+        List<StagedPart> parts = stagingArea.listParts(sessionId);
+        validateComplete(session, parts);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (uploadSessionRepository.claim(sessionId, now, now.minus(completionTimeout)) == 0) {
+            throw new InvalidFileException("Upload session is being completed: " + sessionId);
+        }
+
+        DocumentDTO document;
+        try (InputStream in = stagingArea.openAssembled(parts)) {
+            // Sessions created before the type was defaulted may still have none
+            String fileType = StringUtils.hasText(session.getFileType()) ?
+                    session.getFileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            document = documentService.uploadDocument(in, fileType, session.getCategory(),
+                    session.getFileName(), userId);
+        } catch (IOException | RuntimeException e) {
+            uploadSessionRepository.release(sessionId);
+            throw e;
+        }
+
+        // The document is committed; leftovers from here on are only garbage for purgeStaleSessions
+        try {
+            uploadSessionRepository.deleteSession(sessionId);
+            stagingArea.discard(sessionId);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to clean up completed upload session {}", sessionId, e);
+        }
+        return document;
+    }
+
+    public void abortSession(String sessionId, Long userId) throws IOException {
+        findSession(sessionId, userId);
+        uploadSessionRepository.deleteSession(sessionId);
+        stagingArea.discard(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval:PT1H}")
+    public void purgeStaleSessions() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        LocalDateTime localCutoff = LocalDateTime.now().minus(sessionTtl);
+        try {
+            for (UploadSession session : uploadSessionRepository.findByLastActivityBefore(localCutoff)) {
+                uploadSessionRepository.deleteSession(session.getId());
+                stagingArea.discard(session.getId());
+            }
+            // Directories left behind by failed completions or crashed nodes
+            for (String sessionId : stagingArea.idleSessions(cutoff)) {
+                if (!uploadSessionRepository.existsById(sessionId)) {
+                    stagingArea.discard(sessionId);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to purge stale upload sessions", e);
+        }
+    }
+
+    private void validateComplete(UploadSession session, List<StagedPart> parts) {
+        if (parts.isEmpty()) {
+            throw new InvalidFileException("No parts received");
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i).getPartNumber() != i + 1) {
+                throw new InvalidFileException("Missing part " + (i + 1));
+            }
+        }
+        if (session.getTotalParts() != null && parts.size() != session.getTotalParts()) {
+            throw new InvalidFileException("Expected " + session.getTotalParts() + " parts but received " + parts.size());
+        }
+        long received = parts.stream().mapToLong(StagedPart::getSize).sum();
+        if (session.getTotalSize() != null && received != session.getTotalSize()) {
+            throw new InvalidFileException("Expected " + session.getTotalSize() + " bytes but received " + received);
+        }
+        if (received > maxFileSize.toBytes()) {
+            throw new UploadTooLargeException("Upload exceeds the maximum size of " + maxFileSize.toBytes() + " bytes");
+        }
+    }
+
+    private UploadSession findSession(String sessionId, Long userId) {
+        return uploadSessionRepository.findByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new UploadSessionNotFoundException("Upload session not found: " + sessionId));
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<StagedPart> parts) {
+        return UploadSessionResponse.builder()
+                .sessionId(session.getId())
+                .fileName(session.getFileName())
+                .totalSize(session.getTotalSize())
+                .totalParts(session.getTotalParts())
+                .receivedParts(parts.stream().map(this::toDTO).collect(Collectors.toList()))
+                .createdDate(session.getCreatedDate())
+                .expiryDate(session.getLastActivity().plus(sessionTtl))
+                .build();
+    }
+
+    private UploadPartDTO toDTO(StagedPart part) {
+        return new UploadPartDTO(part.getPartNumber(), part.getSize(), part.getSha256());
+    }
+}
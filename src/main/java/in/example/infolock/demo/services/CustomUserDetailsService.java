@@ -5,13 +5,13 @@ import java.util.Collections;
 import in.example.infolock.demo.entity.UserEntity;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.UserPrincipal;
 
 @Component
 public class CustomUserDetailsService implements UserDetailsService {
@@ -25,7 +25,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow( () -> new UsernameNotFoundException("User not found with email: " + email) );
 
-        return new User(user.getEmail(), user.getPassword(), Collections.singleton(new SimpleGrantedAuthority("USER_ROLE")));
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getPassword(), user.getTokenVersion(), Collections.singleton(new SimpleGrantedAuthority("USER_ROLE")));
     }
 
 
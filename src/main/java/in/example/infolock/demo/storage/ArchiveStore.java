@@ -0,0 +1,451 @@
+package in.example.infolock.demo.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import in.example.infolock.demo.exception.StorageException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for blobs nobody reads any more: append-only segment files
+ * {@code <root>/segment-00000001.arc}, each a sequence of records
+ * {@code [64-byte key][8-byte length][payload]}. Packing many small blobs into a
+ * few large files saves the per-file overhead of the hot tier.
+ *
+ * An in-memory offset index maps each archived key to its record. It is rebuilt
+ * on startup by scanning record headers, later records winning over earlier ones,
+ * and a torn record left by a crash at the end of the last segment is cut off.
+ * Reads memory-map the record, so they never copy it through the heap.
+ *
+ * Removing a blob only drops it from the index. {@link #compact(double)} rewrites
+ * the live records of sealed segments that are mostly garbage into the active
+ * segment and deletes them.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.tiering.enabled", havingValue = "true", matchIfMissing = true)
+public class ArchiveStore {
+
+    private static final int KEY_LENGTH = 64;
+    private static final int HEADER_SIZE = KEY_LENGTH + Long.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{8})\\.arc");
+
+    private final Path root;
+    private final long segmentSize;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final Map<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Reads map a record under the read lock; compaction deletes segment files under the write lock
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+
+    // Reads of archived blobs within the promotion window
+    private final Cache<String, AtomicInteger> recentReads;
+
+    // Guarded by this
+    private Segment active;
+    private FileChannel activeChannel;
+
+    public ArchiveStore(@Value("${app.storage.archive.root:data/archive}") String root,
+                        @Value("${app.storage.archive.segment-size:256MB}") DataSize segmentSize,
+                        @Value("${app.storage.tiering.promote-window:PT1H}") Duration promoteWindow,
+                        MeterRegistry meterRegistry) throws IOException {
+        if (segmentSize.toBytes() > Integer.MAX_VALUE) {
+            // Records are mapped in one piece
+            throw new IllegalArgumentException("Archive segments must be smaller than 2GB");
+        }
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.segmentSize = segmentSize.toBytes();
+        this.recentReads = Caffeine.newBuilder()
+                .expireAfterWrite(promoteWindow)
+                .build();
+        Files.createDirectories(this.root);
+        load();
+
+        Gauge.builder("infolock.storage.archive.blobs", index, Map::size)
+                .description("Blobs held in archive segments")
+                .register(meterRegistry);
+        Gauge.builder("infolock.storage.archive.size", this, ArchiveStore::totalBytes)
+                .description("Bytes in archive segment files, including records awaiting compaction")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("infolock.storage.archive.live", this, ArchiveStore::liveBytes)
+                .description("Bytes of archive records still referenced")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Largest blob that fits in a segment; bigger blobs stay in the hot tier.
+     */
+    public long maxBlobSize() {
+        return segmentSize - HEADER_SIZE;
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns the length of an archived blob, or -1 when it is not archived.
+     */
+    public long size(String key) {
+        Location location = index.get(key);
+        return location == null ? -1 : location.length();
+    }
+
+    /**
+     * Appends a blob read from the given stream, which must yield exactly
+     * {@code length} bytes, and points the index at it.
+     */
+    public void append(String key, InputStream content, long length) throws IOException {
+        Location location = write(key, content, length);
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /**
+     * Opens an archived blob, or returns null when it is not archived.
+     */
+    public InputStream open(String key) throws IOException {
+        ByteBuffer mapped;
+        fileLock.readLock().lock();
+        try {
+            Location location = index.get(key);
+            if (location == null) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, location.offset(), location.length());
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
+        recentReads.get(key, k -> new AtomicInteger()).incrementAndGet();
+        return new ByteBufferInputStream(mapped);
+    }
+
+    public void remove(String key) {
+        Location location = index.remove(key);
+        recentReads.invalidate(key);
+        if (location != null) {
+            release(location);
+        }
+    }
+
+    /**
+     * Drops archived blobs that are not in the given set, for example because
+     * the database no longer lists them as archived after an interrupted move.
+     */
+    public int retainOnly(Set<String> keys) {
+        List<String> stale = index.keySet().stream().filter(key -> !keys.contains(key)).toList();
+        stale.forEach(this::remove);
+        return stale.size();
+    }
+
+    /**
+     * Archived blobs read at least {@code minReads} times within the promotion window.
+     */
+    public List<String> frequentlyRead(int minReads) {
+        List<String> keys = new ArrayList<>();
+        recentReads.asMap().forEach((key, reads) -> {
+            if (reads.get() >= minReads && index.containsKey(key)) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    /**
+     * Rewrites sealed segments in which at least {@code minGarbage} of the bytes
+     * belong to removed blobs. Returns the number of segments reclaimed.
+     */
+    public int compact(double minGarbage) throws IOException {
+        List<Segment> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                if (segment != active && segment.garbageRatio() >= minGarbage) {
+                    candidates.add(segment);
+                }
+            }
+        }
+        for (Segment segment : candidates) {
+            for (Map.Entry<String, Location> entry : List.copyOf(index.entrySet())) {
+                if (entry.getValue().segment() == segment.id) {
+                    move(entry.getKey(), entry.getValue());
+                }
+            }
+            fileLock.writeLock().lock();
+            try {
+                segments.remove(segment.id);
+                Files.deleteIfExists(segment.path);
+            } finally {
+                fileLock.writeLock().unlock();
+            }
+            log.info("Compacted archive segment {}", segment.path.getFileName());
+        }
+        return candidates.size();
+    }
+
+    long totalBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.size.get()).sum();
+    }
+
+    long liveBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.liveBytes.get()).sum();
+    }
+
+    Collection<Integer> segmentIds() {
+        return List.copyOf(segments.keySet());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+            activeChannel = null;
+            active = null;
+        }
+    }
+
+    private void move(String key, Location from) throws IOException {
+        Location to;
+        try (InputStream in = mapped(from)) {
+            to = write(key, in, from.length());
+        }
+        if (index.replace(key, from, to)) {
+            release(from);
+        } else {
+            // Removed or rewritten while we were copying it
+            release(to);
+        }
+    }
+
+    private InputStream mapped(Location location) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(location.segment()), StandardOpenOption.READ)) {
+            return new ByteBufferInputStream(
+                    channel.map(FileChannel.MapMode.READ_ONLY, location.offset(), location.length()));
+        }
+    }
+
+    private synchronized Location write(String key, InputStream content, long length) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.US_ASCII);
+        if (keyBytes.length != KEY_LENGTH) {
+            throw new StorageException("Invalid blob key: " + key);
+        }
+        if (length > maxBlobSize()) {
+            throw new StorageException("Blob " + key + " is too large to archive");
+        }
+        if (active == null || active.size.get() + HEADER_SIZE + length > segmentSize) {
+            roll();
+        }
+
+        long start = active.size.get();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(keyBytes).putLong(length).flip();
+            long position = start + writeFully(header, start);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new StorageException("Blob " + key + " ended " + remaining + " bytes early");
+                }
+                position += writeFully(ByteBuffer.wrap(buffer, 0, read), position);
+                remaining -= read;
+            }
+            // Durable before the caller records the blob as archived
+            activeChannel.force(false);
+        } catch (IOException | RuntimeException e) {
+            activeChannel.truncate(start);
+            throw e;
+        }
+
+        long recordSize = HEADER_SIZE + length;
+        active.size.addAndGet(recordSize);
+        active.liveBytes.addAndGet(recordSize);
+        return new Location(active.id, start + HEADER_SIZE, length);
+    }
+
+    private int writeFully(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += activeChannel.write(buffer, position + written);
+        }
+        return written;
+    }
+
+    private void roll() throws IOException {
+        if (activeChannel != null) {
+            activeChannel.close();
+        }
+        int id = segments.isEmpty() ? 1 : ((ConcurrentSkipListMap<Integer, Segment>) segments).lastKey() + 1;
+        Segment segment = new Segment(id, segmentPath(id));
+        activeChannel = FileChannel.open(segment.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segments.put(id, segment);
+        active = segment;
+    }
+
+    private void release(Location location) {
+        Segment segment = segments.get(location.segment());
+        if (segment != null) {
+            segment.liveBytes.addAndGet(-(HEADER_SIZE + location.length()));
+        }
+    }
+
+    private void load() throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(root)) {
+            files.forEach(path -> {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    found.add(new Segment(Integer.parseInt(matcher.group(1)), path));
+                }
+            });
+        }
+        found.sort((a, b) -> Integer.compare(a.id, b.id));
+        for (Segment segment : found) {
+            segments.put(segment.id, segment);
+            scan(segment);
+        }
+        if (!found.isEmpty()) {
+            Segment last = found.get(found.size() - 1);
+            if (last.size.get() < segmentSize) {
+                active = last;
+                activeChannel = FileChannel.open(last.path, StandardOpenOption.WRITE);
+            }
+        }
+        log.info("Loaded {} archived blobs from {} segments", index.size(), segments.size());
+    }
+
+    private void scan(Segment segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (position + HEADER_SIZE <= fileSize) {
+                header.clear();
+                while (header.hasRemaining() && channel.read(header, position + header.position()) != -1) {
+                    // read the whole header
+                }
+                header.flip();
+                byte[] keyBytes = new byte[KEY_LENGTH];
+                header.get(keyBytes);
+                long length = header.getLong();
+                if (length < 0 || position + HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+                Location location = new Location(segment.id, position + HEADER_SIZE, length);
+                Location previous = index.put(new String(keyBytes, StandardCharsets.US_ASCII), location);
+                if (previous != null) {
+                    release(previous);
+                }
+                segment.liveBytes.addAndGet(HEADER_SIZE + length);
+                position += HEADER_SIZE + length;
+            }
+            if (position < fileSize) {
+                log.warn("Truncating torn record at offset {} of {}", position, segment.path.getFileName());
+                channel.truncate(position);
+            }
+            segment.size.set(position);
+        }
+    }
+
+    private Path segmentPath(int id) {
+        return root.resolve(String.format("segment-%08d.arc", id));
+    }
+
+    private record Location(int segment, long offset, long length) {
+    }
+
+    private static final class Segment {
+
+        private final int id;
+        private final Path path;
+        private final AtomicLong size = new AtomicLong();
+        private final AtomicLong liveBytes = new AtomicLong();
+
+        private Segment(int id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+
+        private double garbageRatio() {
+            long total = size.get();
+            return total == 0 ? 0 : 1 - (double) liveBytes.get() / total;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package in.example.infolock.demo.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Re-openable {@link org.springframework.core.io.Resource} view of a stored blob.
+ * Every call to {@link #getInputStream()} opens a fresh stream, so the body can be
+ * streamed to the client (or split into ranges) without buffering it on the heap.
+ * When an encoding is given the stream is decoded on the fly and the length is
+ * that of the original content.
+ */
+public class BlobResource extends AbstractResource {
+
+    private final BlobStore blobStore;
+    private final String key;
+    private final long length;
+    private final String encoding;
+
+    public BlobResource(BlobStore blobStore, String key, long length) {
+        this(blobStore, key, length, null);
+    }
+
+    public BlobResource(BlobStore blobStore, String key, long length, String encoding) {
+        this.blobStore = blobStore;
+        this.key = key;
+        this.length = length;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return ContentEncoder.decode(blobStore.open(key), encoding);
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public boolean exists() {
+        return blobStore.exists(key);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Blob [" + key + "]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof BlobResource that && key.equals(that.key)
+                && Objects.equals(encoding, that.encoding));
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+}
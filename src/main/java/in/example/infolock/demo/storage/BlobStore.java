@@ -0,0 +1,61 @@
+package in.example.infolock.demo.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Content-addressed storage for document payloads.
+ * Blobs are identified by the hex SHA-256 of their bytes, so identical
+ * content always maps to the same key.
+ */
+public interface BlobStore {
+
+    /**
+     * Streams the given content to a private staging location, hashing it on the
+     * way. The stream is read exactly once and is not closed. Nothing is visible
+     * under the key until {@link #commit(StagedBlob)}.
+     */
+    default StagedBlob stage(InputStream content) throws IOException {
+        return stage(content::transferTo);
+    }
+
+    /**
+     * Like {@link #stage(InputStream)}, but lets the caller write (for example
+     * compress) straight into the staging output. The writer must not close it.
+     */
+    StagedBlob stage(ContentWriter writer) throws IOException;
+
+    /**
+     * Publishes a staged blob under its key. If the key already exists the staged
+     * copy is dropped, since the content is identical.
+     */
+    StoredBlob commit(StagedBlob staged) throws IOException;
+
+    /**
+     * Removes whatever is left of a staged blob. Safe to call after commit.
+     */
+    void discard(StagedBlob staged) throws IOException;
+
+    default StoredBlob put(InputStream content) throws IOException {
+        StagedBlob staged = stage(content);
+        try {
+            return commit(staged);
+        } finally {
+            discard(staged);
+        }
+    }
+
+    InputStream open(String key) throws IOException;
+
+    long size(String key) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+
+    @FunctionalInterface
+    interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
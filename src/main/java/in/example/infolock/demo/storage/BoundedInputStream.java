@@ -0,0 +1,59 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.UploadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails the read that takes a request body past its limit, so raw-body uploads
+ * are capped by what was actually received rather than by Content-Length.
+ */
+public final class BoundedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count;
+
+    public BoundedInputStream(InputStream in, long limit) {
+        super(in);
+        this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long n) {
+        count += n;
+        if (count > limit) {
+            throw new UploadTooLargeException("Upload exceeds the maximum size of " + limit + " bytes");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package in.example.infolock.demo.storage;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * {@link org.springframework.core.io.Resource} over blob bytes held by the
+ * {@link HotContentCache}. Like {@link BlobResource}, the stream is decoded on
+ * the fly when an encoding is given and the length is that of the original content.
+ */
+public class CachedBlobResource extends AbstractResource {
+
+    private final byte[] stored;
+    private final long length;
+    private final String encoding;
+
+    public CachedBlobResource(byte[] stored) {
+        this(stored, stored.length, null);
+    }
+
+    public CachedBlobResource(byte[] stored, long length, String encoding) {
+        this.stored = stored;
+        this.length = length;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return ContentEncoder.decode(new ByteArrayInputStream(stored), encoding);
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cached blob [" + stored.length + " bytes]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof CachedBlobResource that && stored == that.stored
+                && Objects.equals(encoding, that.encoding));
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(stored);
+    }
+}
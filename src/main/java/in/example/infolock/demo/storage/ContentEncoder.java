@@ -0,0 +1,143 @@
+package in.example.infolock.demo.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Optional gzip stage in front of the {@link BlobStore}. Content is compressed
+ * while it is staged unless its type is known to be compressed already or a
+ * sample of its first bytes looks incompressible. Gzip is used rather than a
+ * denser codec so stored bytes can be sent to browsers as-is with
+ * {@code Content-Encoding: gzip}.
+ */
+@Component
+public class ContentEncoder {
+
+    public static final String GZIP = "gzip";
+
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Set<String> COMPRESSED_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/heic", "image/avif",
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/x-bzip2", "application/zstd",
+            "application/epub+zip", "application/java-archive");
+
+    private final BlobStore blobStore;
+    private final boolean enabled;
+    private final double maxEntropy;
+    private final int minSize;
+
+    public ContentEncoder(BlobStore blobStore,
+                          @Value("${app.storage.compression.enabled:true}") boolean enabled,
+                          @Value("${app.storage.compression.max-entropy:7.5}") double maxEntropy,
+                          @Value("${app.storage.compression.min-size:1024}") int minSize) {
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.maxEntropy = maxEntropy;
+        this.minSize = minSize;
+    }
+
+    public EncodedBlob stage(InputStream content, String contentType) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(content, SAMPLE_SIZE);
+        in.mark(SAMPLE_SIZE);
+        byte[] sample = in.readNBytes(SAMPLE_SIZE);
+        in.reset();
+
+        if (!shouldCompress(contentType, sample)) {
+            StagedBlob staged = blobStore.stage(in);
+            return new EncodedBlob(staged, staged.getSize(), null);
+        }
+
+        AtomicLong originalSize = new AtomicLong();
+        StagedBlob staged = blobStore.stage(out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+            originalSize.set(in.transferTo(gzip));
+            gzip.finish();
+        });
+        return new EncodedBlob(staged, originalSize.get(), GZIP);
+    }
+
+    /**
+     * Wraps a stream of stored bytes so it yields the original content.
+     */
+    public static InputStream decode(InputStream stored, String encoding) throws IOException {
+        if (encoding == null) {
+            return stored;
+        }
+        if (GZIP.equals(encoding)) {
+            return new GZIPInputStream(stored, BUFFER_SIZE);
+        }
+        stored.close();
+        throw new IOException("Unsupported content encoding: " + encoding);
+    }
+
+    boolean shouldCompress(String contentType, byte[] sample) {
+        if (!enabled || sample.length < minSize) {
+            return false;
+        }
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            int params = type.indexOf(';');
+            type = (params >= 0 ? type.substring(0, params) : type).trim();
+            if (COMPRESSED_TYPES.contains(type)
+                    || type.startsWith("video/") || type.startsWith("audio/")
+                    || type.startsWith("application/vnd.openxmlformats-officedocument.")
+                    || type.startsWith("application/vnd.oasis.opendocument.")) {
+                return false;
+            }
+        }
+        return !hasCompressedSignature(sample) && entropy(sample) <= maxEntropy;
+    }
+
+    private static boolean hasCompressedSignature(byte[] b) {
+        return startsWith(b, 0x50, 0x4B, 0x03, 0x04)   // zip and zip-based office formats
+                || startsWith(b, 0x1F, 0x8B)           // gzip
+                || startsWith(b, 0xFF, 0xD8, 0xFF)     // jpeg
+                || startsWith(b, 0x89, 0x50, 0x4E, 0x47) // png
+                || startsWith(b, 0x47, 0x49, 0x46, 0x38) // gif
+                || startsWith(b, 0x37, 0x7A, 0xBC, 0xAF) // 7z
+                || startsWith(b, 0x28, 0xB5, 0x2F, 0xFD); // zstd
+    }
+
+    private static boolean startsWith(byte[] b, int... signature) {
+        if (b.length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((b[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shannon entropy in bits per byte; values close to 8 mean the data is
+     * already compressed or encrypted.
+     */
+    static double entropy(byte[] sample) {
+        int[] counts = new int[256];
+        for (byte b : sample) {
+            counts[b & 0xFF]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / sample.length;
+                entropy -= p * (Math.log(p) / Math.log(2));
+            }
+        }
+        return entropy;
+    }
+}
@@ -0,0 +1,13 @@
+package in.example.infolock.demo.storage;
+
+import lombok.Value;
+
+/**
+ * A staged blob together with how it was encoded and how large the original was.
+ */
+@Value
+public class EncodedBlob {
+    StagedBlob staged;
+    long originalSize;
+    String encoding; // null when stored as-is
+}
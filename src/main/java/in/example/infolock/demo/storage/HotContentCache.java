@@ -0,0 +1,89 @@
+package in.example.infolock.demo.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Byte-budgeted heap cache of stored blob bytes for frequently viewed documents.
+ *
+ * Entries are keyed by content key. The bytes under a key never change, so a new
+ * version of a document is a different entry, a stale body can never be served,
+ * and documents sharing content share one entry; nothing needs invalidating.
+ * Caffeine's W-TinyLFU admission keeps a one-off view of a large file from
+ * displacing content that is read often. Files over the per-entry limit bypass
+ * the cache entirely and are counted separately, not as gets or loads.
+ */
+@Component
+public class HotContentCache {
+
+    private final BlobStore blobStore;
+    private final long maxEntryBytes;
+    private final Cache<String, byte[]> cache;
+    private final Counter bypassed;
+
+    public HotContentCache(BlobStore blobStore, MeterRegistry meterRegistry,
+                           @Value("${app.storage.hot-cache.max-size:64MB}") DataSize maxSize,
+                           @Value("${app.storage.hot-cache.max-entry-size:4MB}") DataSize maxEntrySize) {
+        this.blobStore = blobStore;
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "infolock.share.content");
+        Gauge.builder("infolock.share.content.bytes", this, HotContentCache::weightedSize)
+                .baseUnit("bytes").register(meterRegistry);
+        this.bypassed = Counter.builder("infolock.share.content.bypassed")
+                .description("Reads of blobs too large to cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the stored bytes of the blob, loading them on a miss, or null when
+     * the blob is too large to be cached.
+     */
+    public byte[] get(String contentKey) throws IOException {
+        // Peeking does not touch the statistics, so a bypass is not also counted as a miss
+        if (cache.policy().getIfPresentQuietly(contentKey) == null && blobStore.size(contentKey) > maxEntryBytes) {
+            bypassed.increment();
+            return null;
+        }
+        try {
+            // Concurrent misses for the same content share one read
+            return cache.get(contentKey, this::load);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    long weightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private byte[] load(String contentKey) {
+        try (InputStream in = blobStore.open(contentKey)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.StorageException;
+import in.example.infolock.demo.service.BlobReferenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * One-time migration of payloads stored in the legacy {@code documents.file_data}
+ * LONGBLOB column into the {@link BlobStore}. Rows are streamed one at a time and
+ * the column is cleared once the blob is stored, so the job can be interrupted
+ * and resumed safely. Also backfills reference counts for already stored blobs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.migrate-legacy-blobs", havingValue = "true", matchIfMissing = true)
+public class LegacyBlobMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlobStore blobStore;
+    private final BlobReferenceService blobReferenceService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcileReferences();
+
+        String nullable = legacyColumnNullability();
+        if (nullable == null) {
+            return;
+        }
+
+        if ("NO".equals(nullable)) {
+            // Hibernate no longer writes file_data, so new rows must be allowed to leave it empty
+            jdbcTemplate.execute("ALTER TABLE documents MODIFY file_data LONGBLOB NULL");
+        }
+
+        int migrated = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM documents WHERE content_key IS NULL AND file_data IS NOT NULL LIMIT " + BATCH_SIZE,
+                    Long.class);
+            for (Long id : ids) {
+                migrate(id);
+                migrated++;
+            }
+        } while (!ids.isEmpty());
+
+        if (migrated > 0) {
+            log.info("Migrated {} legacy document payloads into the blob store", migrated);
+        }
+    }
+
+    private void migrate(Long id) {
+        StagedBlob staged = jdbcTemplate.query(
+                "SELECT file_data FROM documents WHERE id = ?",
+                rs -> {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        return blobStore.stage(in);
+                    } catch (IOException e) {
+                        throw new StorageException("Failed to migrate document id: " + id, e);
+                    }
+                },
+                id);
+        if (staged == null) {
+            return;
+        }
+
+        try {
+            blobReferenceService.prepare(staged);
+            transactionTemplate.executeWithoutResult(status -> {
+                StoredBlob blob = blobReferenceService.acquire(staged);
+                jdbcTemplate.update(
+                        "UPDATE documents SET content_key = ?, file_size = ?, file_data = NULL WHERE id = ?",
+                        blob.getKey(), blob.getSize(), id);
+            });
+        } finally {
+            try {
+                blobStore.discard(staged);
+            } catch (IOException e) {
+                log.warn("Failed to remove staged blob for document id: {}", id, e);
+            }
+        }
+    }
+
+    /**
+     * Creates content_blobs rows for documents stored before reference counting
+     * existed, so their blobs are never reclaimed while still in use.
+     */
+    private void reconcileReferences() {
+        int created = jdbcTemplate.update(
+                "INSERT INTO content_blobs (content_key, size, ref_count, created_date) " +
+                        "SELECT d.content_key, MAX(d.file_size), COUNT(*), CURRENT_TIMESTAMP FROM documents d " +
+                        "WHERE d.content_key IS NOT NULL " +
+                        "AND NOT EXISTS (SELECT 1 FROM content_blobs b WHERE b.content_key = d.content_key) " +
+                        "GROUP BY d.content_key");
+        if (created > 0) {
+            log.info("Created reference counts for {} existing blobs", created);
+        }
+    }
+
+    /**
+     * Returns the IS_NULLABLE flag of the legacy column, or null when it does not exist.
+     */
+    private String legacyColumnNullability() {
+        return jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, "documents", "file_data")) {
+                return columns.next() ? columns.getString("IS_NULLABLE") : null;
+            }
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.StorageException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Stores blobs on the local filesystem as {@code <root>/ab/cd/<sha256>}.
+ * Content is staged in a temp file and moved into place on commit, so readers
+ * never observe a partially written blob.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tmpDir;
+    private final Counter bytesRead;
+
+    public LocalBlobStore(@Value("${app.storage.local.root:data/blobs}") String root,
+                          MeterRegistry meterRegistry) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        this.bytesRead = Counter.builder("infolock.storage.read")
+                .description("Stored blob bytes read from disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public StagedBlob stage(ContentWriter writer) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            try (OutputStream out = new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE), digest)) {
+                writer.writeTo(out);
+            }
+            return new StagedBlob(HexFormat.of().formatHex(digest.digest()), Files.size(tmp), tmp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    @Override
+    public StoredBlob commit(StagedBlob staged) throws IOException {
+        Path target = resolve(staged.getKey());
+        if (Files.exists(target)) {
+            // Same content is already stored
+            Files.deleteIfExists(staged.getPath());
+        } else {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staged.getPath(), target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(staged.getPath());
+            }
+        }
+        return new StoredBlob(staged.getKey(), staged.getSize());
+    }
+
+    @Override
+    public void discard(StagedBlob staged) throws IOException {
+        Files.deleteIfExists(staged.getPath());
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return new CountingInputStream(Files.newInputStream(resolve(key)), bytesRead);
+        } catch (NoSuchFileException e) {
+            throw new StorageException("Blob not found: " + key, e);
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        try {
+            return Files.size(resolve(key));
+        } catch (NoSuchFileException e) {
+            throw new StorageException("Blob not found: " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new StorageException("Invalid blob key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Adds the bytes read to a counter as they are consumed.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final Counter counter;
+
+        CountingInputStream(InputStream in, Counter counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counter.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counter.increment(read);
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package in.example.infolock.demo.storage;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Content that has been hashed and written to a staging file but is not yet
+ * published under its key.
+ */
+@Value
+public class StagedBlob {
+    String key;
+    long size;
+    Path path;
+}
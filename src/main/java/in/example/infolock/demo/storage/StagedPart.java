@@ -0,0 +1,13 @@
+package in.example.infolock.demo.storage;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+@Value
+public class StagedPart {
+    int partNumber;
+    long size;
+    String sha256;
+    Path path;
+}
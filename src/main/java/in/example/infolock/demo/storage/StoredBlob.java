@@ -0,0 +1,9 @@
+package in.example.infolock.demo.storage;
+
+import lombok.Value;
+
+@Value
+public class StoredBlob {
+    String key;
+    long size;
+}
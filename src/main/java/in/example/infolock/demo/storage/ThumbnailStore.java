@@ -0,0 +1,191 @@
+package in.example.infolock.demo.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Pre-rendered preview images, stored on local disk as
+ * {@code <root>/ab/<contentKey>-<size>.jpg} with a heap cache in front.
+ *
+ * Previews are keyed by content, like blobs, so documents with identical bytes
+ * share one. Both tiers are size-bounded: the heap cache by Caffeine, and the
+ * disk tier by trimming the least recently read files once it grows past
+ * {@code app.thumbnails.max-disk-size}. An evicted preview is simply rendered
+ * again on its next request.
+ */
+@Slf4j
+@Component
+public class ThumbnailStore {
+
+    private final Path root;
+    private final Path tmpDir;
+    private final int size;
+    private final long maxDiskBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final Cache<String, byte[]> cache;
+    private final Counter evicted;
+    // A lock rather than synchronized, which would pin a virtual thread for the whole directory walk
+    private final ReentrantLock trimLock = new ReentrantLock();
+
+    public ThumbnailStore(MeterRegistry meterRegistry,
+                          @Value("${app.thumbnails.root:data/thumbnails}") String root,
+                          @Value("${app.thumbnails.size:256}") int size,
+                          @Value("${app.thumbnails.max-disk-size:1GB}") DataSize maxDiskSize,
+                          @Value("${app.thumbnails.memory-cache-size:16MB}") DataSize memoryCacheSize) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve("tmp");
+        this.size = size;
+        this.maxDiskBytes = maxDiskSize.toBytes();
+        Files.createDirectories(tmpDir);
+        try (Stream<Path> files = previewFiles()) {
+            diskBytes.set(files.mapToLong(ThumbnailStore::sizeOf).sum());
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(memoryCacheSize.toBytes())
+                .weigher((String key, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "infolock.thumbnails");
+        Gauge.builder("infolock.thumbnails.disk.bytes", diskBytes, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        this.evicted = Counter.builder("infolock.thumbnails.disk.evicted")
+                .description("Previews removed from disk to stay within the size budget")
+                .register(meterRegistry);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the JPEG preview of the content, or null when none has been rendered.
+     */
+    public byte[] get(String contentKey) throws IOException {
+        byte[] cached = cache.getIfPresent(contentKey);
+        if (cached != null) {
+            return cached;
+        }
+        Path path = resolve(contentKey);
+        try {
+            byte[] image = Files.readAllBytes(path);
+            // Last-modified doubles as last-read time for disk eviction
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            cache.put(contentKey, image);
+            return image;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    public boolean exists(String contentKey) {
+        return Files.exists(resolve(contentKey));
+    }
+
+    public void put(String contentKey, byte[] image) throws IOException {
+        Path target = resolve(contentKey);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(tmpDir, "thumb-", ".part");
+        try {
+            Files.write(tmp, image);
+            long replaced = sizeOf(target);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            diskBytes.addAndGet(image.length - replaced);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        cache.put(contentKey, image);
+        if (diskBytes.get() > maxDiskBytes) {
+            trim();
+        }
+    }
+
+    long diskBytes() {
+        return diskBytes.get();
+    }
+
+    /**
+     * Deletes the least recently read previews until the disk tier is at 90% of
+     * its budget, leaving headroom so not every new preview triggers a trim.
+     */
+    void trim() throws IOException {
+        long target = maxDiskBytes / 10 * 9;
+        // A trim already in progress will bring the total down for this caller too
+        if (diskBytes.get() <= target || !trimLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Path> oldestFirst;
+            try (Stream<Path> files = previewFiles()) {
+                oldestFirst = files.sorted(Comparator.comparing(ThumbnailStore::lastModified)).toList();
+            }
+            for (Path path : oldestFirst) {
+                if (diskBytes.get() <= target) {
+                    break;
+                }
+                long length = sizeOf(path);
+                if (Files.deleteIfExists(path)) {
+                    diskBytes.addAndGet(-length);
+                    cache.invalidate(contentKey(path));
+                    evicted.increment();
+                }
+            }
+            log.debug("Trimmed thumbnail store to {} bytes", diskBytes.get());
+        } finally {
+            trimLock.unlock();
+        }
+    }
+
+    private Stream<Path> previewFiles() throws IOException {
+        return Files.walk(root)
+                .filter(path -> !path.startsWith(tmpDir))
+                .filter(path -> path.getFileName().toString().endsWith(".jpg"));
+    }
+
+    private Path resolve(String contentKey) {
+        return root.resolve(contentKey.substring(0, 2)).resolve(contentKey + "-" + size + ".jpg");
+    }
+
+    private static String contentKey(Path path) {
+        String name = path.getFileName().toString();
+        return name.substring(0, name.indexOf('-'));
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
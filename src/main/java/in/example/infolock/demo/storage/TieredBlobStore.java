@@ -0,0 +1,124 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.StorageException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Serves blobs from two tiers: the {@link LocalBlobStore} for new and frequently
+ * read content, and the {@link ArchiveStore} for content that has gone cold.
+ * New content always lands in the hot tier; StorageTieringService moves it
+ * between tiers, always copying before it deletes, so a blob is readable from
+ * at least one tier at every point of a move.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.storage.tiering.enabled", havingValue = "true", matchIfMissing = true)
+public class TieredBlobStore implements BlobStore {
+
+    private final LocalBlobStore hot;
+    private final ArchiveStore archive;
+
+    public TieredBlobStore(LocalBlobStore hot, ArchiveStore archive) {
+        this.hot = hot;
+        this.archive = archive;
+    }
+
+    @Override
+    public StagedBlob stage(ContentWriter writer) throws IOException {
+        return hot.stage(writer);
+    }
+
+    @Override
+    public StoredBlob commit(StagedBlob staged) throws IOException {
+        if (archive.contains(staged.getKey())) {
+            // Same content is already archived
+            hot.discard(staged);
+            return new StoredBlob(staged.getKey(), staged.getSize());
+        }
+        return hot.commit(staged);
+    }
+
+    @Override
+    public void discard(StagedBlob staged) throws IOException {
+        hot.discard(staged);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        InputStream archived = archive.open(key);
+        return archived != null ? archived : hot.open(key);
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        long archived = archive.size(key);
+        return archived >= 0 ? archived : hot.size(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return archive.contains(key) || hot.exists(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        archive.remove(key);
+        hot.delete(key);
+    }
+
+    public boolean isArchived(String key) {
+        return archive.contains(key);
+    }
+
+    /**
+     * Appends the hot copy of a blob to the archive, unless it is already there.
+     */
+    public void copyToArchive(String key) throws IOException {
+        if (archive.contains(key)) {
+            return;
+        }
+        long size = hot.size(key);
+        try (InputStream in = hot.open(key)) {
+            archive.append(key, in, size);
+        }
+    }
+
+    public void deleteHotCopy(String key) throws IOException {
+        hot.delete(key);
+    }
+
+    /**
+     * Restores the hot copy of an archived blob, checking that the bytes still
+     * hash to the key.
+     */
+    public void copyToHot(String key) throws IOException {
+        if (hot.exists(key)) {
+            return;
+        }
+        InputStream archived = archive.open(key);
+        if (archived == null) {
+            throw new StorageException("Blob not archived: " + key);
+        }
+        StagedBlob staged;
+        try (InputStream in = archived) {
+            staged = hot.stage(in);
+        }
+        try {
+            if (!staged.getKey().equals(key)) {
+                throw new StorageException("Archived copy of blob " + key + " is corrupt");
+            }
+            hot.commit(staged);
+        } finally {
+            hot.discard(staged);
+        }
+    }
+
+    public void dropArchiveCopy(String key) {
+        archive.remove(key);
+    }
+}
@@ -0,0 +1,174 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.InvalidFileException;
+import in.example.infolock.demo.exception.StorageException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Disk staging for chunked uploads. Each part is written to its own file named
+ * {@code <partNumber>-<sha256>.part} under the session directory, so parts can
+ * arrive concurrently and in any order, and listing the directory is enough to
+ * report which parts were received.
+ */
+@Component
+public class UploadStagingArea {
+
+    private static final Pattern SESSION_PATTERN = Pattern.compile("[0-9a-f-]{36}");
+    private static final Pattern PART_PATTERN = Pattern.compile("(\\d{5})-([0-9a-f]{64})\\.part");
+
+    private final Path root;
+
+    public UploadStagingArea(@Value("${app.storage.uploads.root:data/uploads}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    /**
+     * Stores one part. When {@code expectedSha256} is given the part is rejected
+     * unless the received bytes hash to it.
+     */
+    public StagedPart writePart(String sessionId, int partNumber, InputStream content,
+                                String expectedSha256) throws IOException {
+        Path dir = sessionDir(sessionId);
+        Files.createDirectories(dir);
+
+        MessageDigest digest = newDigest();
+        Path tmp = Files.createTempFile(dir, "part-", ".tmp");
+        try {
+            long size;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                size = new DigestInputStream(content, digest).transferTo(out);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+                throw new InvalidFileException("Checksum mismatch for part " + partNumber);
+            }
+
+            // A retried part replaces whatever was received before under the same number
+            for (StagedPart previous : listParts(sessionId)) {
+                if (previous.getPartNumber() == partNumber) {
+                    Files.deleteIfExists(previous.getPath());
+                }
+            }
+            Path target = dir.resolve(String.format("%05d-%s.part", partNumber, sha256));
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new StagedPart(partNumber, size, sha256, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public List<StagedPart> listParts(String sessionId) throws IOException {
+        Path dir = sessionDir(sessionId);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        Map<Integer, StagedPart> parts = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.part")) {
+            for (Path file : files) {
+                Matcher matcher = PART_PATTERN.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    int partNumber = Integer.parseInt(matcher.group(1));
+                    StagedPart part = new StagedPart(partNumber, Files.size(file), matcher.group(2), file);
+                    parts.merge(partNumber, part, UploadStagingArea::newer);
+                }
+            }
+        }
+        return new ArrayList<>(parts.values());
+    }
+
+    /**
+     * Concatenates the given parts into a single stream, opening each file only
+     * when the previous one is exhausted.
+     */
+    public InputStream openAssembled(List<StagedPart> parts) {
+        Iterator<StagedPart> iterator = parts.iterator();
+        return new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                StagedPart part = iterator.next();
+                try {
+                    return Files.newInputStream(part.getPath());
+                } catch (IOException e) {
+                    throw new StorageException("Missing staged part " + part.getPartNumber(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Session directories that have not been written to since {@code cutoff}.
+     */
+    public List<String> idleSessions(Instant cutoff) throws IOException {
+        List<String> idle = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                String name = dir.getFileName().toString();
+                if (SESSION_PATTERN.matcher(name).matches()
+                        && Files.getLastModifiedTime(dir).toInstant().isBefore(cutoff)) {
+                    idle.add(name);
+                }
+            }
+        }
+        return idle;
+    }
+
+    public void discard(String sessionId) throws IOException {
+        FileSystemUtils.deleteRecursively(sessionDir(sessionId));
+    }
+
+    private Path sessionDir(String sessionId) {
+        if (sessionId == null || !SESSION_PATTERN.matcher(sessionId).matches()) {
+            throw new StorageException("Invalid upload session id: " + sessionId);
+        }
+        return root.resolve(sessionId);
+    }
+
+    private static StagedPart newer(StagedPart a, StagedPart b) {
+        try {
+            return Files.getLastModifiedTime(a.getPath()).compareTo(Files.getLastModifiedTime(b.getPath())) >= 0 ? a : b;
+        } catch (IOException e) {
+            return a;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
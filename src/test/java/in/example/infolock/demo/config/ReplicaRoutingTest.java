@@ -0,0 +1,284 @@
+package in.example.infolock.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.DocumentService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs against two in-memory databases: the usual test database as primary and a
+ * second one as replica, which is brought up to date by copying the primary
+ * before each test. Documents written afterwards exist only on the primary, so
+ * whether a read sees them shows where it was routed.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL + ";IFEXISTS=TRUE",
+        "app.datasource.replicas.connection-timeout=PT0.25S",
+        "app.datasource.replicas.pool-size=2",
+        "app.datasource.replicas.read-your-writes-secret=" + ReplicaRoutingTest.SECRET,
+        "app.datasource.replicas.health-check-interval=PT1H"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String SECRET = "test-read-your-writes";
+    static final String REPLICA_URL = "jdbc:h2:mem:infolock_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    // Holds the replica database open; a test that shuts it down closes this too
+    private static Connection replica;
+    private UserEntity user;
+    private Long replicatedId;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        // Before the context starts, so the replica pool connects on its first attempt
+        replica = DriverManager.getConnection(REPLICA_URL + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @AfterAll
+    static void dropReplica() throws SQLException {
+        if (!replica.isClosed()) {
+            try (Statement statement = replica.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String email = "reader-" + UUID.randomUUID() + "@example.com";
+        user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        replicatedId = save("replicated.txt").getId();
+        replicate();
+        // Reads are only routed to replicas on request threads
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        save("primary-only.txt");
+
+        assertThat(ids(documentService.getUserDocuments(user.getId()))).containsExactly(replicatedId);
+        assertThat(documentRepository.findDtosByUserId(user.getId())).hasSize(2);
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(user.getId(), user.getEmail(), "secret", List.of()), null, List.of()));
+        Long written = save("just-uploaded.txt").getId();
+
+        assertThat(ids(documentService.getUserDocuments(user.getId()))).containsExactlyInAnyOrder(replicatedId, written);
+    }
+
+    @Test
+    void readsFollowAWriteMadeOnAnotherNode() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(user.getId(), user.getEmail(), "secret", List.of()), null, List.of()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        save("just-uploaded.txt");
+        Cookie written = response.getCookie(ReplicaRoutingDataSource.WRITE_COOKIE);
+        assertThat(written).isNotNull();
+
+        HikariDataSource otherNodeReplica = new HikariDataSource();
+        otherNodeReplica.setJdbcUrl(REPLICA_URL + ";IFEXISTS=TRUE");
+        otherNodeReplica.setUsername("sa");
+        try (ReplicaRoutingDataSource otherNode = new ReplicaRoutingDataSource(
+                primaryDataSource, List.of(otherNodeReplica), Duration.ofSeconds(5), SECRET)) {
+            assertThat(readUrl(otherNode, withCookie(written.getValue()))).doesNotContain("infolock_replica");
+            assertThat(readUrl(otherNode, new MockHttpServletRequest())).contains("infolock_replica");
+
+            // A deadline the client picked itself, or another user's cookie, keeps reads on the replica
+            long until = System.currentTimeMillis() + 4_000;
+            String signature = written.getValue().substring(written.getValue().indexOf('.') + 1);
+            assertThat(readUrl(otherNode, withCookie(Long.toString(until)))).contains("infolock_replica");
+            assertThat(readUrl(otherNode, withCookie(until + "." + signature))).contains("infolock_replica");
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    new UserPrincipal(user.getId() + 1, "other@example.com", "secret", List.of()), null, List.of()));
+            assertThat(readUrl(otherNode, withCookie(written.getValue()))).contains("infolock_replica");
+        }
+    }
+
+    @Test
+    void backgroundWorkReadsFromThePrimary() {
+        Long written = save("primary-only.txt").getId();
+        RequestContextHolder.resetRequestAttributes();
+
+        assertThat(ids(documentService.getUserDocuments(user.getId()))).containsExactlyInAnyOrder(replicatedId, written);
+    }
+
+    @Test
+    void failsOverToThePrimaryWhenTheReplicaIsDown() throws Exception {
+        Long written = save("primary-only.txt").getId();
+        long failovers = replicaRoutingDataSource.failovers();
+        try (Statement statement = replica.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        // Past Hikari's window for handing out idle connections without validating them
+        Thread.sleep(600);
+
+        assertThat(ids(documentService.getUserDocuments(user.getId()))).containsExactlyInAnyOrder(replicatedId, written);
+        assertThat(replicaRoutingDataSource.failovers()).isGreaterThan(failovers);
+        assertThat(replicaRoutingDataSource.healthyReplicas()).isZero();
+    }
+
+    @Test
+    void aBusyReplicaStaysInRotation() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection first = replicaRoutingDataSource.getConnection();
+             Connection second = replicaRoutingDataSource.getConnection();
+             Connection third = replicaRoutingDataSource.getConnection()) {
+            assertThat(first.getMetaData().getURL()).contains("infolock_replica");
+            assertThat(second.getMetaData().getURL()).contains("infolock_replica");
+            // The replica pool is exhausted, so this one comes from the primary
+            assertThat(third.getMetaData().getURL()).doesNotContain("infolock_replica");
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        assertThat(replicaRoutingDataSource.healthyReplicas()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionsWithExplicitCredentialsAreRoutedToo() {
+        // Hikari refuses per-call credentials; the refusal must not count against the replica
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager, readOnly()).execute(status -> {
+            try (Connection connection = replicaRoutingDataSource.getConnection("sa", "")) {
+                return connection;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        })).hasCauseInstanceOf(SQLFeatureNotSupportedException.class);
+        assertThat(replicaRoutingDataSource.healthyReplicas()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest withCookie(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReplicaRoutingDataSource.WRITE_COOKIE, value));
+        return request;
+    }
+
+    private static String readUrl(ReplicaRoutingDataSource dataSource, MockHttpServletRequest request) throws SQLException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private static DefaultTransactionDefinition readOnly() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return definition;
+    }
+
+    private Document save(String fileName) {
+        return documentRepository.save(Document.builder()
+                .fileName(fileName)
+                .fileType("text/plain")
+                .category("notes")
+                .fileSize(1L)
+                .uploadDate(LocalDateTime.now())
+                .user(user)
+                .build());
+    }
+
+    /**
+     * Replaces the replica's contents with a snapshot of the primary.
+     */
+    private void replicate() throws Exception {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class);
+        if (replica.isClosed()) {
+            replica = DriverManager.getConnection(REPLICA_URL + ";DB_CLOSE_DELAY=-1", "sa", "");
+        }
+        try (Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+        // The pool retries a replica that was down with a growing back-off
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        replicaRoutingDataSource.checkHealth();
+        while (replicaRoutingDataSource.healthyReplicas() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+            replicaRoutingDataSource.checkHealth();
+        }
+        assertThat(replicaRoutingDataSource.healthyReplicas()).isEqualTo(1);
+    }
+
+    private static List<Long> ids(List<DocumentDTO> documents) {
+        return documents.stream().map(DocumentDTO::getId).toList();
+    }
+}
@@ -0,0 +1,136 @@
+package in.example.infolock.demo.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.search.SearchIndexer;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each authenticated request issues once its token has
+ * been seen, so a regression back to per-request user lookups fails the build.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DocumentQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    private Statistics statistics;
+    private String authorization;
+    private Long documentId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String email = "user-" + UUID.randomUUID() + "@example.com";
+        userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(userId, email, "secret", List.of()));
+
+        String body = mockMvc.perform(post("/api/documents/upload/stream")
+                        .param("category", "notes")
+                        .param("filename", "notes.txt")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("hello world")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        documentId = objectMapper.readTree(body).get("id").asLong();
+        // The indexer reads the new document in the background; keep its queries out of the counts
+        assertThat(searchIndexer.awaitIdle(10, TimeUnit.SECONDS)).isTrue();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void downloadIssuesOneQuery() throws Exception {
+        mockMvc.perform(get("/api/documents/download/{id}", documentId)
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listingIssuesOneQuery() throws Exception {
+        mockMvc.perform(get("/api/documents")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pageIssuesOneQuery() throws Exception {
+        mockMvc.perform(get("/api/documents/page")
+                        .param("limit", "10")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void ownershipCheckDoesNotLoadTheUser() throws Exception {
+        mockMvc.perform(get("/api/documents/{id}", documentId)
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(UserEntity.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void userLookupsByIdAreServedFromTheSecondLevelCache() {
+        userRepository.findById(userId);
+        userRepository.findById(userId);
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+}
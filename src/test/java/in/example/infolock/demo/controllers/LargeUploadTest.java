@@ -0,0 +1,168 @@
+package in.example.infolock.demo.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uploads 2 GB through the HTTP endpoints, the multipart parser, DocumentService
+ * and the ContentEncoder into the blob store. The profile runs it with a 256 MB
+ * heap, so any stage that buffers the body fails with OutOfMemoryError.
+ *
+ * Run with {@code mvn test -Plarge-upload-test}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "infolock.test.large-upload", matches = "true")
+class LargeUploadTest {
+
+    private static final long SIZE = 2L * 1024 * 1024 * 1024;
+    private static final String BOUNDARY = "infolock-large-upload";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Long userId;
+    private String authorization;
+
+    @BeforeEach
+    void setUp() {
+        String email = "large-" + UUID.randomUUID() + "@example.com";
+        userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(userId, email, "secret", List.of()));
+    }
+
+    @Test
+    void streamsTwoGigabyteRawUploadWithConstantMemory() throws Exception {
+        SyntheticInputStream content = new SyntheticInputStream(SIZE);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/documents/upload/stream?category=large&filename=large.bin"))
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> content), SIZE))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertStored(objectMapper.readValue(response.body(), DocumentDTO.class), content);
+    }
+
+    @Test
+    void streamsTwoGigabyteMultipartUploadWithConstantMemory() throws Exception {
+        SyntheticInputStream content = new SyntheticInputStream(SIZE);
+        byte[] head = ("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"category\"\r\n\r\nlarge\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"filename\"\r\n\r\nlarge.bin\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"large.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/documents/upload"))
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(HttpHeaders.CONTENT_TYPE, "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(
+                        () -> new SequenceInputStream(new ByteArrayInputStream(head),
+                                new SequenceInputStream(content, new ByteArrayInputStream(tail)))),
+                        head.length + SIZE + tail.length))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertStored(objectMapper.readValue(response.body(), DocumentDTO.class), content);
+    }
+
+    private void assertStored(DocumentDTO document, SyntheticInputStream uploaded) throws Exception {
+        assertThat(document.getFileSize()).isEqualTo(SIZE);
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = documentService.downloadUserDocument(document.getId(), userId)
+                .getContent().getInputStream()) {
+            for (int n; (n = in.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        assertThat(digest.digest()).isEqualTo(uploaded.digest.digest());
+    }
+
+    /**
+     * Generates a deterministic byte pattern of the given length and digests it as it goes.
+     */
+    private static class SyntheticInputStream extends InputStream {
+        private final long length;
+        private final MessageDigest digest;
+        private long position;
+
+        SyntheticInputStream(long length) throws Exception {
+            this.length = length;
+            this.digest = MessageDigest.getInstance("SHA-256");
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) ((position + i) * 31 >>> 3);
+            }
+            digest.update(b, off, n);
+            position += n;
+            return n;
+        }
+    }
+}
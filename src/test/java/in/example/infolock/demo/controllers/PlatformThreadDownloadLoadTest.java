@@ -0,0 +1,21 @@
+package in.example.infolock.demo.controllers;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        "server.tomcat.threads.max=" + SlowDownloadLoadTest.REQUEST_THREADS
+})
+@Import(SlowDownloadLoadTest.SmallSendBuffers.class)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "infolock.test.benchmark", matches = "true")
+class PlatformThreadDownloadLoadTest extends SlowDownloadLoadTest {
+
+    @Override
+    String mode() {
+        return "platform threads, " + REQUEST_THREADS + " request threads";
+    }
+}
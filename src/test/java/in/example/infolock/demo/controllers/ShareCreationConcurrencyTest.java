@@ -0,0 +1,169 @@
+package in.example.infolock.demo.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fires the same share request from many threads at once, as double-clicks and
+ * client retries do, and checks that exactly one link comes out of it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShareCreationConcurrencyTest {
+
+    private static final int REQUESTS = 200;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String authorization;
+    private Long documentId;
+
+    @BeforeEach
+    void setUp() {
+        String email = "sharer-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(user.getId(), email, "secret", List.of()));
+        documentId = documentRepository.save(Document.builder()
+                .fileName("shared.txt")
+                .fileType("text/plain")
+                .category("notes")
+                .fileSize(1L)
+                .uploadDate(LocalDateTime.now())
+                .user(user)
+                .build()).getId();
+    }
+
+    @Test
+    void concurrentPublicShareRequestsCreateOneLink() throws Exception {
+        Set<String> tokens = createConcurrently(() -> share(true));
+
+        assertThat(tokens).hasSize(1);
+        assertThat(linkCount()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesWithOneIdempotencyKeyCreateOneLink() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        Set<String> tokens = createConcurrently(() -> share(false).header(ShareController.IDEMPOTENCY_KEY, key));
+
+        assertThat(tokens).hasSize(1);
+        assertThat(linkCount()).isEqualTo(1);
+    }
+
+    @Test
+    void distinctIdempotencyKeysCreateDistinctPrivateLinks() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(share(false).header(ShareController.IDEMPOTENCY_KEY, "key-" + i))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(share(false).header(ShareController.IDEMPOTENCY_KEY, "key-0"))
+                .andExpect(status().isOk());
+
+        assertThat(linkCount()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsOverlongIdempotencyKeys() throws Exception {
+        mockMvc.perform(share(false).header(ShareController.IDEMPOTENCY_KEY, "k".repeat(65)))
+                .andExpect(status().isBadRequest());
+
+        assertThat(linkCount()).isZero();
+    }
+
+    private Set<String> createConcurrently(RequestFactory request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    String body = mockMvc.perform(request.create())
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString();
+                    tokens.add(objectMapper.readTree(body).get("shareToken").asText());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return tokens;
+    }
+
+    private MockHttpServletRequestBuilder share(boolean isPublic) {
+        return post("/api/documents/share")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"documentId\":" + documentId + ",\"isPublic\":" + isPublic + "}")
+                .header(HttpHeaders.AUTHORIZATION, authorization);
+    }
+
+    private long linkCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM share_links WHERE document_id = ?", Long.class, documentId);
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        MockHttpServletRequestBuilder create();
+    }
+}
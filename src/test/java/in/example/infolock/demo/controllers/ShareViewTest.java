@@ -0,0 +1,118 @@
+package in.example.infolock.demo.controllers;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.ShareRequest;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.DocumentService;
+import in.example.infolock.demo.service.ShareService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShareViewTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authorization;
+    private DocumentDTO document;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String email = "share-viewer-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(user.getId(), email, "secret", List.of()));
+        document = documentService.uploadDocument(
+                new ByteArrayInputStream("shared content".getBytes(StandardCharsets.UTF_8)),
+                "text/plain", "notes", "shared.txt", user.getId());
+    }
+
+    @Test
+    void onlyAdmittedViewsCountAsDownloads() throws Exception {
+        String url = "/api/documents/share/" + createLink(1);
+
+        long downloads = downloads();
+        String etag = mockMvc.perform(view(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(downloads()).isEqualTo(downloads + 1);
+
+        mockMvc.perform(view(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(view(url))
+                .andExpect(status().isNotFound());
+        assertThat(downloads()).isEqualTo(downloads + 1);
+    }
+
+    @Test
+    void rangesAfterTheFirstDoNotUseUpALimitedLink() throws Exception {
+        String url = "/api/documents/share/" + createLink(2);
+
+        // One open by a viewer that fetches the document in pieces
+        mockMvc.perform(view(url).header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andExpect(status().isPartialContent());
+        for (String range : List.of("bytes=4-7", "bytes=8-", "bytes=-2", "bytes=4-7")) {
+            mockMvc.perform(view(url).header(HttpHeaders.RANGE, range))
+                    .andExpect(status().isPartialContent());
+        }
+
+        mockMvc.perform(view(url))
+                .andExpect(status().isOk());
+        mockMvc.perform(view(url).header(HttpHeaders.RANGE, "bytes=0-3"))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletRequestBuilder view(String url) {
+        return get(url).header(HttpHeaders.AUTHORIZATION, authorization);
+    }
+
+    private String createLink(Integer maxViews) {
+        return shareService.createShareLink(new ShareRequest(document.getId(), false, null, maxViews))
+                .getShareToken();
+    }
+
+    private long downloads() {
+        return meterRegistry.summary("infolock.documents.download.size").count();
+    }
+}
@@ -0,0 +1,162 @@
+package in.example.infolock.demo.controllers;
+
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import in.example.infolock.demo.service.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many clients downloading over slow links at once. Each one holds a request
+ * thread until its body is written, so with platform threads later clients wait
+ * for a free thread before seeing a single byte; with virtual threads they all
+ * start at once. Subclasses pick the threading mode.
+ *
+ * Run with {@code mvn test -Pbenchmark}, adding {@code -Pjava21} on a Java 21 JDK
+ * for the virtual thread variant.
+ */
+abstract class SlowDownloadLoadTest {
+
+    static final int REQUEST_THREADS = 32;
+
+    private static final int CLIENTS = 200;
+    private static final int DOCUMENT_SIZE = 1024 * 1024;
+    private static final int READ_SIZE = 16 * 1024;
+    private static final long READ_PAUSE_MILLIS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String authorization;
+    private Long documentId;
+
+    /**
+     * Caps the server's socket send buffer, which Linux would otherwise grow until
+     * it holds the whole body and hides the blocked writer.
+     */
+    @TestConfiguration
+    static class SmallSendBuffers {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> smallSendBuffers() {
+            return factory -> factory.addConnectorCustomizers(
+                    connector -> connector.setProperty("socket.txBufSize", String.valueOf(READ_SIZE)));
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String email = "load-" + UUID.randomUUID() + "@example.com";
+        Long userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(userId, email, "secret", List.of()));
+
+        // Random bytes are stored uncompressed, so the response is exactly DOCUMENT_SIZE long
+        byte[] content = new byte[DOCUMENT_SIZE];
+        new Random(42).nextBytes(content);
+        documentId = documentService.uploadDocument(new ByteArrayInputStream(content),
+                "application/octet-stream", "load", "payload.bin", userId).getId();
+    }
+
+    @Test
+    void slowClientsDownloadConcurrently() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(this::download));
+            }
+            List<Long> firstByte = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                long[] result = future.get(5, TimeUnit.MINUTES);
+                assertThat(result[1]).isGreaterThan(DOCUMENT_SIZE);
+                firstByte.add(result[0]);
+            }
+            double wall = (System.nanoTime() - start) / 1e9;
+            firstByte.sort(null);
+
+            System.out.printf("slow downloads (%s): %d clients, %.1f s wall, time to first byte p50 %.2f s, p99 %.2f s%n",
+                    mode(), CLIENTS, wall, seconds(firstByte, 0.50), seconds(firstByte, 0.99));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    abstract String mode();
+
+    /**
+     * Returns the time to the first response byte in nanoseconds and the bytes read.
+     */
+    private long[] download() throws Exception {
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(READ_SIZE);
+            socket.setSoTimeout((int) TimeUnit.MINUTES.toMillis(2));
+            socket.connect(new InetSocketAddress("localhost", port));
+
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET /api/documents/download/" + documentId + " HTTP/1.1\r\n" +
+                    "Host: localhost\r\n" +
+                    "Authorization: " + authorization + "\r\n" +
+                    "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            long sent = System.nanoTime();
+
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[READ_SIZE];
+            long firstByte = -1;
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (firstByte < 0) {
+                    firstByte = System.nanoTime() - sent;
+                }
+                total += read;
+                Thread.sleep(READ_PAUSE_MILLIS);
+            }
+            return new long[]{firstByte, total};
+        }
+    }
+
+    private static double seconds(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e9;
+    }
+}
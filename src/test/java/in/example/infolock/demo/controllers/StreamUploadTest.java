@@ -0,0 +1,64 @@
+package in.example.infolock.demo.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StreamUploadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void unlabelledBodiesAreStoredAsBinary() throws Exception {
+        String email = "streamer-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        String authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(user.getId(), email, "secret", List.of()));
+
+        String body = mockMvc.perform(post("/api/documents/upload/stream")
+                        .param("category", "notes")
+                        .param("filename", "untyped.bin")
+                        .header(HttpHeaders.AUTHORIZATION, authorization)
+                        .content("no content type".getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode document = objectMapper.readTree(body);
+        assertThat(document.get("fileType").asText()).isEqualTo("application/octet-stream");
+        assertThat(document.get("fileSize").asLong()).isEqualTo(15);
+    }
+}
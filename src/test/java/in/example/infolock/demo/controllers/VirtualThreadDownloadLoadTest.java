@@ -0,0 +1,24 @@
+package in.example.infolock.demo.controllers;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.threads.max=" + SlowDownloadLoadTest.REQUEST_THREADS
+})
+@Import(SlowDownloadLoadTest.SmallSendBuffers.class)
+@ActiveProfiles("test")
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "infolock.test.benchmark", matches = "true")
+class VirtualThreadDownloadLoadTest extends SlowDownloadLoadTest {
+
+    @Override
+    String mode() {
+        return "virtual threads";
+    }
+}
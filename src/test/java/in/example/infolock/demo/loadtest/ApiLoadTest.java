@@ -0,0 +1,335 @@
+package in.example.infolock.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import in.example.infolock.demo.loadtest.LatencyRecorder.OperationStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test: registers and logs in users, seeds documents with a
+ * realistic size mix, then drives a weighted mix of auth, document and share
+ * requests over HTTP from concurrent clients. Runs fully offline against the
+ * embedded H2 database (in MySQL mode) of the test profile.
+ *
+ * Latency percentiles and throughput per operation are printed and written to
+ * {@code target/load-test/report.txt} and {@code report.json}, along with whether
+ * each operation met its p99 objective. The run fails when any request errors, and
+ * also on a missed objective with {@code -Dinfolock.load.enforce-slo=true}; leave
+ * that off on machines much smaller than production.
+ *
+ * Run with {@code mvn test -Pload-test}. Tune with {@code -Dinfolock.load.users},
+ * {@code .documents-per-user}, {@code .concurrency}, {@code .warmup} and
+ * {@code .duration} (ISO-8601, e.g. PT2M), and override an objective with
+ * {@code -Dinfolock.load.slo.<operation>=<p99 ms>}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.processing.poll-interval=PT1S")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "infolock.test.load", matches = "true")
+class ApiLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+
+    // Operation name -> share of requests in the mix, in percent
+    private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+    // Operation name -> default p99 objective in milliseconds
+    private static final Map<String, Integer> P99_OBJECTIVES = Map.of(
+            "auth.login", 1000,
+            "documents.upload", 2000,
+            "documents.download", 1000);
+    private static final int DEFAULT_P99_OBJECTIVE = 500;
+
+    static {
+        MIX.put("documents.page", 30);
+        MIX.put("documents.download", 25);
+        MIX.put("share.view", 20);
+        MIX.put("documents.metadata", 12);
+        MIX.put("documents.upload", 8);
+        MIX.put("share.create", 3);
+        MIX.put("auth.login", 2);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int users = Integer.getInteger("infolock.load.users", 20);
+    private final int documentsPerUser = Integer.getInteger("infolock.load.documents-per-user", 10);
+    private final int concurrency = Integer.getInteger("infolock.load.concurrency", 32);
+    private final Duration warmup = Duration.parse(System.getProperty("infolock.load.warmup", "PT10S"));
+    private final Duration duration = Duration.parse(System.getProperty("infolock.load.duration", "PT30S"));
+
+    private RestClient client;
+    private final List<Client> clients = new ArrayList<>();
+    private final List<String> shareTokens = new CopyOnWriteArrayList<>();
+
+    /**
+     * One seeded user with the documents they own.
+     */
+    private record Client(String email, String authorization, List<Long> documentIds) {
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofSeconds(10));
+        requestFactory.setReadTimeout(Duration.ofMinutes(1));
+        client = RestClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .requestFactory(requestFactory)
+                .build();
+        try {
+            seed();
+            run(executor, warmup, new LatencyRecorder());
+
+            LatencyRecorder recorder = new LatencyRecorder();
+            long start = System.nanoTime();
+            run(executor, duration, recorder);
+            List<OperationStats> stats = recorder.summarize(Duration.ofNanos(System.nanoTime() - start));
+
+            report(stats);
+            assertThat(stats).allSatisfy(operation ->
+                    assertThat(operation.errors()).as("%s errors", operation.operation()).isZero());
+            if (Boolean.getBoolean("infolock.load.enforce-slo")) {
+                assertThat(stats).allSatisfy(operation ->
+                        assertThat(operation.p99Millis()).as("%s p99 ms", operation.operation())
+                                .isLessThanOrEqualTo(p99Objective(operation.operation())));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void seed() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < users; i++) {
+            String email = "load-" + UUID.randomUUID() + "@example.com";
+            Map<String, String> credentials = Map.of("username", email, "email", email, "password", PASSWORD);
+            post("/api/auth/register", credentials);
+            Client user = new Client(email, "Bearer " + login(email),
+                    new CopyOnWriteArrayList<>());
+            for (int d = 0; d < documentsPerUser; d++) {
+                user.documentIds().add(upload(user, random.nextInt(100)));
+            }
+            shareTokens.add(share(user, user.documentIds().get(0)));
+            clients.add(user);
+        }
+    }
+
+    /**
+     * Keeps every worker busy with a random operation from the mix until the
+     * window closes.
+     */
+    private void run(ExecutorService executor, Duration window, LatencyRecorder recorder) throws Exception {
+        long deadline = System.nanoTime() + window.toNanos();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String operation = pickOperation();
+                    long start = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = perform(operation);
+                    } catch (RuntimeException e) {
+                        success = false;
+                    }
+                    recorder.record(operation, System.nanoTime() - start, success);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(window.toMillis() + TimeUnit.MINUTES.toMillis(5), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean perform(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Client user = clients.get(random.nextInt(clients.size()));
+        Long documentId = user.documentIds().get(random.nextInt(user.documentIds().size()));
+        return switch (operation) {
+            case "documents.page" -> get("/api/documents/page?limit=20", user) != null;
+            case "documents.download" -> get("/api/documents/download/" + documentId, user) != null;
+            case "documents.metadata" -> get("/api/documents/" + documentId, user) != null;
+            // Share links live under /api/documents, so viewers need to be signed in too
+            case "share.view" -> get("/api/documents/share/"
+                    + shareTokens.get(random.nextInt(shareTokens.size())), user) != null;
+            case "documents.upload" -> user.documentIds().add(upload(user, random.nextInt(100)));
+            case "share.create" -> share(user, documentId) != null;
+            case "auth.login" -> login(user.email()) != null;
+            default -> throw new IllegalArgumentException("Unknown operation " + operation);
+        };
+    }
+
+    private String login(String email) {
+        return post("/api/auth/login", Map.of("email", email, "password", PASSWORD)).get("token").asText();
+    }
+
+    /**
+     * Uploads a document whose size follows the mix seen in practice: mostly
+     * small scans and text, some office documents, a few large PDFs.
+     */
+    private Long upload(Client user, int percentile) {
+        int size;
+        String type;
+        if (percentile < 60) {
+            size = 16 * 1024;
+            type = "text/plain";
+        } else if (percentile < 90) {
+            size = 256 * 1024;
+            type = "application/octet-stream";
+        } else if (percentile < 99) {
+            size = 2 * 1024 * 1024;
+            type = "application/octet-stream";
+        } else {
+            size = 10 * 1024 * 1024;
+            type = "application/octet-stream";
+        }
+        String boundary = "load-" + UUID.randomUUID();
+        return client.post()
+                .uri("/api/documents/upload")
+                .header(HttpHeaders.AUTHORIZATION, user.authorization())
+                .contentType(MediaType.parseMediaType("multipart/form-data; boundary=" + boundary))
+                .body(multipart(boundary, content(size, type), type))
+                .retrieve()
+                .body(JsonNode.class)
+                .get("id").asLong();
+    }
+
+    private String share(Client user, Long documentId) {
+        return client.post()
+                .uri("/api/documents/share")
+                .header(HttpHeaders.AUTHORIZATION, user.authorization())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("documentId", documentId, "isPublic", true, "expiryDays", 7))
+                .retrieve()
+                .body(JsonNode.class)
+                .get("shareToken").asText();
+    }
+
+    private static byte[] content(int size, String type) {
+        byte[] content = new byte[size];
+        Random random = new Random();
+        if (type.startsWith("text/")) {
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte) (i % 64 == 63 ? ' ' : 'a' + random.nextInt(26));
+            }
+        } else {
+            random.nextBytes(content);
+        }
+        return content;
+    }
+
+    private static byte[] multipart(String boundary, byte[] file, String type) {
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"category\"\r\n\r\nload\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"filename\"\r\n\r\npayload.bin\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"payload.bin\"\r\n"
+                + "Content-Type: " + type + "\r\n\r\n";
+        byte[] headBytes = head.getBytes(StandardCharsets.US_ASCII);
+        byte[] tailBytes = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] body = new byte[headBytes.length + file.length + tailBytes.length];
+        System.arraycopy(headBytes, 0, body, 0, headBytes.length);
+        System.arraycopy(file, 0, body, headBytes.length, file.length);
+        System.arraycopy(tailBytes, 0, body, headBytes.length + file.length, tailBytes.length);
+        return body;
+    }
+
+    private String pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Operation mix does not add up to 100");
+    }
+
+    private static double p99Objective(String operation) {
+        return Integer.getInteger("infolock.load.slo." + operation,
+                P99_OBJECTIVES.getOrDefault(operation, DEFAULT_P99_OBJECTIVE));
+    }
+
+    private void report(List<OperationStats> stats) throws IOException {
+        StringBuilder text = new StringBuilder(String.format(
+                "API load test: %d users, %d documents each, %d clients, %ds%n",
+                users, documentsPerUser, concurrency, duration.toSeconds()));
+        text.append(String.format("%-20s %9s %7s %9s %9s %9s %9s %9s %8s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "p99 SLO"));
+        for (OperationStats s : stats) {
+            double objective = p99Objective(s.operation());
+            text.append(String.format("%-20s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %8s%n",
+                    s.operation(), s.requests(), s.errors(), s.throughput(), s.p50Millis(), s.p99Millis(),
+                    s.p999Millis(), s.maxMillis(), s.p99Millis() <= objective ? "met" : "MISSED"));
+        }
+        text.append(String.format("%-20s %9d %7d %9.1f%n", "total",
+                stats.stream().mapToInt(OperationStats::requests).sum(),
+                stats.stream().mapToInt(OperationStats::errors).sum(),
+                stats.stream().mapToDouble(OperationStats::throughput).sum()));
+        System.out.print(text);
+
+        Path directory = Path.of("target", "load-test");
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("report.txt"), text);
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), Map.of(
+                        "users", users,
+                        "documentsPerUser", documentsPerUser,
+                        "concurrency", concurrency,
+                        "durationSeconds", duration.toSeconds(),
+                        "operations", stats));
+    }
+
+    private byte[] get(String path, Client user) {
+        return client.get()
+                .uri(path)
+                .header(HttpHeaders.AUTHORIZATION, user.authorization())
+                .retrieve()
+                .body(byte[].class);
+    }
+
+    private JsonNode post(String path, Map<String, ?> json) {
+        return client.post()
+                .uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json)
+                .retrieve()
+                .body(JsonNode.class);
+    }
+}
@@ -0,0 +1,70 @@
+package in.example.infolock.demo.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Collects the latency of every request per operation, so percentiles are exact
+ * rather than bucketed. A few hundred thousand samples fit comfortably in memory.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> operations = new ConcurrentSkipListMap<>();
+
+    void record(String operation, long nanos, boolean success) {
+        operations.computeIfAbsent(operation, name -> new Samples()).add(nanos, success);
+    }
+
+    /**
+     * Summarises everything recorded so far, one entry per operation in name order.
+     */
+    List<OperationStats> summarize(Duration elapsed) {
+        List<OperationStats> stats = new ArrayList<>();
+        operations.forEach((name, samples) -> stats.add(samples.summarize(name, elapsed)));
+        return stats;
+    }
+
+    record OperationStats(String operation, int requests, int errors, double throughput,
+                          double p50Millis, double p99Millis, double p999Millis, double maxMillis) {
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long latency, boolean success) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized OperationStats summarize(String name, Duration elapsed) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new OperationStats(name, count, errors, count / (elapsed.toNanos() / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6);
+        }
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds.
+     */
+    static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,39 @@
+package in.example.infolock.demo.loadtest;
+
+import in.example.infolock.demo.loadtest.LatencyRecorder.OperationStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyRecorderTest {
+
+    @Test
+    void reportsNearestRankPercentilesPerOperation() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record("download", i * 1_000_000L, i % 100 != 0);
+        }
+        recorder.record("list", 5_000_000L, true);
+
+        List<OperationStats> stats = recorder.summarize(Duration.ofSeconds(10));
+
+        assertThat(stats).extracting(OperationStats::operation).containsExactly("download", "list");
+        OperationStats download = stats.get(0);
+        assertThat(download.requests()).isEqualTo(1000);
+        assertThat(download.errors()).isEqualTo(10);
+        assertThat(download.throughput()).isEqualTo(100.0);
+        assertThat(download.p50Millis()).isEqualTo(500.0);
+        assertThat(download.p99Millis()).isEqualTo(990.0);
+        assertThat(download.p999Millis()).isEqualTo(999.0);
+        assertThat(download.maxMillis()).isEqualTo(1000.0);
+        assertThat(stats.get(1).p999Millis()).isEqualTo(5.0);
+    }
+
+    @Test
+    void emptySampleSetHasZeroPercentiles() {
+        assertThat(LatencyRecorder.percentile(new long[0], 0.99)).isZero();
+    }
+}
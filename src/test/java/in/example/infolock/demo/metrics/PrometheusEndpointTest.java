@@ -0,0 +1,118 @@
+package in.example.infolock.demo.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.security.JwtUtil;
+import in.example.infolock.demo.security.UserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    private static final String OPS_CREDENTIALS = "Basic " + Base64.getEncoder()
+            .encodeToString("ops:test-ops".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsDocumentShareAuthAndQueryMeters() throws Exception {
+        String email = "metrics-" + UUID.randomUUID() + "@example.com";
+        Long userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        String authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(userId, email, "secret", List.of()));
+
+        String body = mockMvc.perform(post("/api/documents/upload/stream")
+                        .param("category", "notes")
+                        .param("filename", "notes.txt")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("hello metrics")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long documentId = objectMapper.readTree(body).get("id").asLong();
+        mockMvc.perform(get("/api/documents/download/{id}", documentId)
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/documents/share/{token}", "no-such-token")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isNotFound());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header(HttpHeaders.AUTHORIZATION, OPS_CREDENTIALS))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("infolock_documents_upload_duration_seconds_count{application=\"demo\",outcome=\"success\"}")
+                .contains("infolock_documents_upload_size_bytes_count")
+                .contains("infolock_documents_download_size_bytes_count")
+                .contains("infolock_storage_read_bytes_total")
+                .contains("infolock_security_jwt_parse_seconds_count{application=\"demo\",outcome=\"valid\"}")
+                .contains("infolock_share_views_total{application=\"demo\",outcome=\"not_found\"}")
+                .contains("infolock_db_query_duration_seconds_bucket")
+                .contains("infolock_http_request_queries_count{application=\"demo\",method=\"GET\",uri=\"/api/documents/download/{id}\"}");
+    }
+
+    @Test
+    void actuatorEndpointsOtherThanHealthNeedTheOpsAccount() throws Exception {
+        String email = "metrics-" + UUID.randomUUID() + "@example.com";
+        Long userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        String authorization = "Bearer " + jwtUtil.generateToken(new UserPrincipal(userId, email, "secret", List.of()));
+
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics")
+                        .header(HttpHeaders.AUTHORIZATION, OPS_CREDENTIALS))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/storage")
+                        .header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/storage")
+                        .header(HttpHeaders.AUTHORIZATION, OPS_CREDENTIALS))
+                .andExpect(status().isOk());
+    }
+}
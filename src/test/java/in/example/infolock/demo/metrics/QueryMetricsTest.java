@@ -0,0 +1,36 @@
+package in.example.infolock.demo.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryMetrics queryMetrics = new QueryMetrics(registry, Duration.ofMillis(100), 0.0);
+
+    @Test
+    void countsStatementsOnlyWithinARequest() {
+        queryMetrics.record("select 1", 1_000);
+
+        queryMetrics.beginRequest();
+        queryMetrics.record("select 1", 1_000);
+        queryMetrics.record("select 2", 1_000);
+
+        assertThat(queryMetrics.endRequest()).isEqualTo(2);
+        assertThat(queryMetrics.endRequest()).isZero();
+        assertThat(registry.get("infolock.db.query.duration").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void countsEverySlowStatementWhetherOrNotItIsLogged() {
+        queryMetrics.record("select fast", Duration.ofMillis(99).toNanos());
+        queryMetrics.record("select slow", Duration.ofMillis(100).toNanos());
+        queryMetrics.record("select slower", Duration.ofSeconds(2).toNanos());
+
+        assertThat(registry.get("infolock.db.query.slow").counter().count()).isEqualTo(2);
+    }
+}
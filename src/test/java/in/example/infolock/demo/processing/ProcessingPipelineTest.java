@@ -0,0 +1,203 @@
+package in.example.infolock.demo.processing;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.DocumentThumbnail;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ProcessingTask;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.ProcessingTaskRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.service.DocumentService;
+import in.example.infolock.demo.service.ThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.processing.max-attempts=3",
+        "app.processing.retry-backoff=PT0.01S",
+        "app.processing.max-retry-backoff=PT0.05S"
+})
+@ActiveProfiles("test")
+class ProcessingPipelineTest {
+
+    // Fails the first two attempts for every document, then succeeds
+    private static final Map<Long, AtomicInteger> flakyAttempts = new ConcurrentHashMap<>();
+    // Never succeeds for documents named broken.txt
+    private static final Set<Long> brokenSeen = ConcurrentHashMap.newKeySet();
+
+    @TestConfiguration
+    static class Stages {
+
+        @Bean
+        ProcessingStage flakyStage() {
+            return new ProcessingStage() {
+                @Override
+                public String name() {
+                    return "test-flaky";
+                }
+
+                @Override
+                public void process(Document document) throws IOException {
+                    if (flakyAttempts.computeIfAbsent(document.getId(), id -> new AtomicInteger()).incrementAndGet() < 3) {
+                        throw new IOException("not yet");
+                    }
+                }
+            };
+        }
+
+        @Bean
+        ProcessingStage brokenStage() {
+            return new ProcessingStage() {
+                @Override
+                public String name() {
+                    return "test-broken";
+                }
+
+                @Override
+                public void process(Document document) throws IOException {
+                    if (document.getFileName().equals("broken.txt")) {
+                        brokenSeen.add(document.getId());
+                        throw new IOException("always fails");
+                    }
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ProcessingDispatcher processingDispatcher;
+
+    @Autowired
+    private ProcessingTaskRepository processingTaskRepository;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String email = "pipeline-" + UUID.randomUUID() + "@example.com";
+        userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+    }
+
+    @Test
+    void uploadQueuesEveryStageAndWorkersDrainIt() throws Exception {
+        DocumentDTO document = upload("report.txt");
+
+        assertThat(processingTaskRepository.findByDocumentId(document.getId()))
+                .extracting(ProcessingTask::getStage)
+                .containsExactlyInAnyOrder("verify-content", "thumbnail", "test-flaky", "test-broken");
+
+        List<ProcessingTask> left = drain(document.getId());
+
+        assertThat(left).isEmpty();
+        assertThat(flakyAttempts.get(document.getId())).hasValue(3);
+    }
+
+    @Test
+    void parksTaskAsFailedAfterMaxAttempts() throws Exception {
+        DocumentDTO document = upload("broken.txt");
+
+        List<ProcessingTask> left = drain(document.getId());
+
+        assertThat(brokenSeen).contains(document.getId());
+        assertThat(left).singleElement().satisfies(task -> {
+            assertThat(task.getStage()).isEqualTo("test-broken");
+            assertThat(task.getStatus()).isEqualTo(ProcessingTask.Status.FAILED);
+            assertThat(task.getAttempts()).isEqualTo(3);
+            assertThat(task.getLastError()).contains("always fails");
+        });
+    }
+
+    @Test
+    void deletedDocumentsAreSkipped() throws Exception {
+        DocumentDTO document = upload("gone.txt");
+        documentService.deleteDocument(document.getId(), userId);
+
+        assertThat(drain(document.getId())).isEmpty();
+        assertThat(flakyAttempts).doesNotContainKey(document.getId());
+    }
+
+    @Test
+    void imageUploadsGetAThumbnail() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        BufferedImage photo = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        // Previews are shared by content key, so make the bytes unique to this run
+        photo.setRGB(0, 0, (int) System.nanoTime());
+        ImageIO.write(photo, "png", png);
+        DocumentDTO document = documentService.uploadDocument(
+                new ByteArrayInputStream(png.toByteArray()), "image/png", "photos", "photo.png", userId);
+
+        assertThat(thumbnailService.getThumbnail(document.getId(), userId)).isEmpty();
+        drain(document.getId());
+
+        DocumentThumbnail thumbnail = thumbnailService.getThumbnail(document.getId(), userId).orElseThrow();
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail.getImage()));
+        assertThat(image.getWidth()).isEqualTo(256);
+        assertThat(image.getHeight()).isEqualTo(192);
+    }
+
+    @Test
+    void backoffGrowsExponentiallyUpToTheCap() {
+        Duration base = Duration.ofSeconds(10);
+        Duration max = Duration.ofMinutes(5);
+
+        assertThat(ProcessingDispatcher.backoff(1, base, max)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+        assertThat(ProcessingDispatcher.backoff(3, base, max)).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(40));
+        assertThat(ProcessingDispatcher.backoff(40, base, max)).isBetween(Duration.ofMinutes(2).plusSeconds(30), max);
+    }
+
+    private DocumentDTO upload(String fileName) throws IOException {
+        return documentService.uploadDocument(
+                new ByteArrayInputStream(("content of " + fileName).getBytes(StandardCharsets.UTF_8)),
+                "text/plain", "notes", fileName, userId);
+    }
+
+    /**
+     * Polls until no task for the document is pending or running, and returns what is left.
+     */
+    private List<ProcessingTask> drain(Long documentId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (System.nanoTime() < deadline) {
+            processingDispatcher.dispatch();
+            List<ProcessingTask> tasks = processingTaskRepository.findByDocumentId(documentId);
+            if (tasks.stream().allMatch(task -> task.getStatus() == ProcessingTask.Status.FAILED)) {
+                return tasks;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Processing did not finish for document " + documentId);
+    }
+}
@@ -0,0 +1,72 @@
+package in.example.infolock.demo.processing;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailRendererTest {
+
+    private final ThumbnailRenderer renderer = new ThumbnailRenderer();
+
+    @Test
+    void downscalesImagesKeepingAspectRatio() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(2_000, 1_000, BufferedImage.TYPE_INT_ARGB), "png", png);
+
+        BufferedImage thumbnail = read(renderer.render(
+                new ByteArrayInputStream(png.toByteArray()), "image/png", "scan.png", 256));
+
+        assertThat(thumbnail.getWidth()).isEqualTo(256);
+        assertThat(thumbnail.getHeight()).isEqualTo(128);
+    }
+
+    @Test
+    void doesNotUpscaleSmallImages() throws IOException {
+        ByteArrayOutputStream gif = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "gif", gif);
+
+        BufferedImage thumbnail = read(renderer.render(
+                new ByteArrayInputStream(gif.toByteArray()), "image/gif", "icon.gif", 256));
+
+        assertThat(thumbnail.getWidth()).isEqualTo(40);
+        assertThat(thumbnail.getHeight()).isEqualTo(30);
+    }
+
+    @Test
+    void rendersFirstPdfPage() throws IOException {
+        ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(pdf);
+        }
+
+        BufferedImage thumbnail = read(renderer.render(
+                new ByteArrayInputStream(pdf.toByteArray()), "application/pdf", "letter.pdf", 256));
+
+        assertThat(thumbnail.getHeight()).isEqualTo(256);
+        assertThat(thumbnail.getWidth()).isBetween(180, 182);
+    }
+
+    @Test
+    void supportsOnlyPdfAndCommonImages() {
+        assertThat(renderer.supports("application/pdf", "a.pdf")).isTrue();
+        assertThat(renderer.supports("image/jpeg; charset=binary", "a")).isTrue();
+        assertThat(renderer.supports(null, "photo.PNG")).isTrue();
+        assertThat(renderer.supports("text/plain", "notes.txt")).isFalse();
+        assertThat(renderer.supports("image/svg+xml", "logo.svg")).isFalse();
+    }
+
+    private static BufferedImage read(byte[] jpeg) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+}
@@ -0,0 +1,84 @@
+package in.example.infolock.demo.search;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new SearchIndex(dir.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void matchesNameCategoryAndContent() throws IOException {
+        index.index(dto(1L, "tax-return-2023.pdf", "finance"), 7L, "Form 16 and salary slips");
+        index.index(dto(2L, "passport.jpg", "identity"), 7L, "");
+        index.refresh();
+
+        assertThat(index.search(7L, "tax", 10)).extracting(DocumentDTO::getId).containsExactly(1L);
+        assertThat(index.search(7L, "identity", 10)).extracting(DocumentDTO::getId).containsExactly(2L);
+        assertThat(index.search(7L, "salary", 10)).extracting(DocumentDTO::getId).containsExactly(1L);
+        assertThat(index.search(7L, "\"salary slips\" -passport", 10)).extracting(DocumentDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void onlyReturnsTheUsersOwnDocuments() throws IOException {
+        index.index(dto(1L, "contract.pdf", "legal"), 7L, "");
+        index.index(dto(2L, "contract.pdf", "legal"), 8L, "");
+        index.refresh();
+
+        assertThat(index.search(7L, "contract", 10)).extracting(DocumentDTO::getId).containsExactly(1L);
+        assertThat(index.search(8L, "contract", 10)).extracting(DocumentDTO::getId).containsExactly(2L);
+    }
+
+    @Test
+    void returnsStoredFieldsAndReflectsUpdatesAndDeletes() throws IOException {
+        LocalDateTime uploaded = LocalDateTime.of(2024, 3, 1, 10, 30);
+        DocumentDTO original = dto(1L, "draft.txt", "notes");
+        original.setUploadDate(uploaded);
+        index.index(original, 7L, "");
+        index.index(dto(1L, "final.txt", "notes"), 7L, "");
+        index.refresh();
+
+        assertThat(index.search(7L, "draft", 10)).isEmpty();
+        DocumentDTO hit = index.search(7L, "final", 10).get(0);
+        assertThat(hit.getFileType()).isEqualTo("text/plain");
+        assertThat(hit.getFileSize()).isEqualTo(42L);
+        assertThat(index.documentCount()).isEqualTo(1);
+
+        index.delete(1L);
+        index.refresh();
+
+        assertThat(index.search(7L, "final", 10)).isEmpty();
+    }
+
+    private static DocumentDTO dto(Long id, String fileName, String category) {
+        return DocumentDTO.builder()
+                .id(id)
+                .fileName(fileName)
+                .fileType("text/plain")
+                .category(category)
+                .fileSize(42L)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package in.example.infolock.demo.search;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextExtractorTest {
+
+    private final TextExtractor extractor = new TextExtractor(1_000);
+
+    @Test
+    void extractsPdfText() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument pdf = new PDDocument()) {
+            PDPage page = new PDPage();
+            pdf.addPage(page);
+            try (PDPageContentStream stream = new PDPageContentStream(pdf, page)) {
+                stream.beginText();
+                stream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                stream.newLineAtOffset(72, 700);
+                stream.showText("Quarterly invoice summary");
+                stream.endText();
+            }
+            pdf.save(out);
+        }
+
+        String text = extractor.extract(new ByteArrayInputStream(out.toByteArray()), "application/pdf", "report.pdf");
+
+        assertThat(text).contains("Quarterly invoice summary");
+    }
+
+    @Test
+    void extractsDocxParagraphs() throws IOException {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <w:document xmlns:w="http://schemas.openxmlformats.org/wordprocessingml/2006/main">
+                  <w:body>
+                    <w:p><w:r><w:t>Lease</w:t></w:r><w:r><w:t xml:space="preserve"> agreement</w:t></w:r></w:p>
+                    <w:p><w:r><w:t>Signed in Chennai</w:t></w:r></w:p>
+                  </w:body>
+                </w:document>
+                """.strip();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write("<Types/>".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            zip.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String text = extractor.extract(new ByteArrayInputStream(out.toByteArray()),
+                "application/vnd.openxmlformats-officedocument.wordprocessingml.document", "lease.docx");
+
+        assertThat(text).isEqualTo("Lease agreement\nSigned in Chennai\n");
+    }
+
+    @Test
+    void truncatesLongText() throws IOException {
+        byte[] content = "word ".repeat(1_000).getBytes(StandardCharsets.UTF_8);
+
+        String text = extractor.extract(new ByteArrayInputStream(content), "text/plain", "notes.txt");
+
+        assertThat(text).hasSize(1_000);
+    }
+
+    @Test
+    void ignoresUnsupportedFormats() throws IOException {
+        String text = extractor.extract(new ByteArrayInputStream(new byte[]{1, 2, 3}), "image/png", "photo.png");
+
+        assertThat(text).isEmpty();
+    }
+}
@@ -0,0 +1,104 @@
+package in.example.infolock.demo.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.example.infolock.demo.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Logout and password changes must reject tokens on nodes that never saw the
+ * request, which a fresh {@link TokenCache} over the same database stands in for.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenRevocationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        email = "revoke-" + UUID.randomUUID() + "@example.com";
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "username", email, "email", email, "password", "first-secret"))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void loggedOutTokenIsRejectedEverywhere() throws Exception {
+        String token = login("first-secret");
+        mockMvc.perform(get("/api/documents").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/documents").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        TokenCache otherNode = new TokenCache(revokedTokenRepository, 100, Duration.ofMinutes(5));
+        assertThat(otherNode.isRejected(token, jwtUtil.parseClaims(token), principal(token))).isTrue();
+    }
+
+    @Test
+    void passwordChangeRejectsEarlierTokensIncludingThoseFromTheSameSecond() throws Exception {
+        String before = login("first-secret");
+        mockMvc.perform(get("/api/documents").header(HttpHeaders.AUTHORIZATION, "Bearer " + before))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/change-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "email", email, "currentPassword", "first-secret", "newPassword", "second-secret"))))
+                .andExpect(status().isOk());
+        String after = login("second-secret");
+
+        mockMvc.perform(get("/api/documents").header(HttpHeaders.AUTHORIZATION, "Bearer " + before))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/documents").header(HttpHeaders.AUTHORIZATION, "Bearer " + after))
+                .andExpect(status().isOk());
+    }
+
+    private String login(String password) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", email, "password", password))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private UserPrincipal principal(String token) {
+        return new UserPrincipal(1L, jwtUtil.extractUsername(token), "", 0, List.of());
+    }
+}
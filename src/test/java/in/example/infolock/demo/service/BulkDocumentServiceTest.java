@@ -0,0 +1,202 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.exception.InvalidBatchRequestException;
+import in.example.infolock.demo.repository.ContentBlobRepository;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BulkDocumentServiceTest {
+
+    @Autowired
+    private BulkDocumentService bulkDocumentService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ShareLinkRepository shareLinkRepository;
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = createUser();
+    }
+
+    @Test
+    void uploadsAllFilesInOneBatch() throws IOException {
+        List<DocumentDTO> uploaded = bulkDocumentService.uploadDocuments(
+                List.of(file("a.txt", "first"), file("b.txt", "second"), file("c.txt", "first")), "notes", userId);
+
+        assertThat(uploaded).extracting(DocumentDTO::getFileName).containsExactly("a.txt", "b.txt", "c.txt");
+        assertThat(documentService.getUserDocuments(userId)).hasSize(3);
+        // Identical content shares one blob with two references
+        String key = documentRepository.findById(uploaded.get(0).getId()).orElseThrow().getContentKey();
+        assertThat(contentBlobRepository.findById(key).orElseThrow().getRefCount()).isEqualTo(2);
+    }
+
+    @Test
+    void deletesOnlyTheUsersDocumentsAndTheirLinks() throws IOException {
+        List<DocumentDTO> mine = bulkDocumentService.uploadDocuments(
+                List.of(file("a.txt", "one " + UUID.randomUUID()), file("b.txt", "two")), "notes", userId);
+        Long otherUser = createUser();
+        DocumentDTO theirs = bulkDocumentService.uploadDocuments(List.of(file("c.txt", "three")), "notes", otherUser).get(0);
+        Document shared = documentRepository.findById(mine.get(0).getId()).orElseThrow();
+        shareLinkRepository.save(ShareLink.builder()
+                .token(UUID.randomUUID().toString().substring(0, 16))
+                .document(shared)
+                .isPublic(true)
+                .isActive(true)
+                .createdDate(LocalDateTime.now())
+                .viewCount(0)
+                .build());
+
+        int deleted = bulkDocumentService.deleteDocuments(
+                List.of(mine.get(0).getId(), mine.get(1).getId(), theirs.getId(), -1L), userId);
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(documentService.getUserDocuments(userId)).isEmpty();
+        assertThat(documentService.getUserDocuments(otherUser)).hasSize(1);
+        assertThat(contentBlobRepository.findById(shared.getContentKey()).orElseThrow().getRefCount()).isZero();
+    }
+
+    @Test
+    void archivesACategoryWithUniqueEntryNames() throws IOException {
+        bulkDocumentService.uploadDocuments(List.of(
+                file("report.txt", "quarterly numbers ".repeat(200)),
+                file("report.txt", "annual numbers"),
+                file("../escape.txt", "nope")), "finance", userId);
+        bulkDocumentService.uploadDocuments(List.of(file("other.txt", "elsewhere")), "misc", userId);
+
+        List<Document> documents = bulkDocumentService.findForArchive(userId, null, "finance");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkDocumentService.writeArchive(documents, out);
+
+        Map<String, String> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(entries).containsOnlyKeys("report.txt", "report (2).txt", ".._escape.txt");
+        assertThat(entries.get("report.txt")).isEqualTo("quarterly numbers ".repeat(200));
+        assertThat(entries.get("report (2).txt")).isEqualTo("annual numbers");
+    }
+
+    @Test
+    void rejectsMalformedBatches() {
+        assertThatThrownBy(() -> bulkDocumentService.deleteDocuments(List.of(), userId))
+                .isInstanceOf(InvalidBatchRequestException.class);
+        assertThatThrownBy(() -> bulkDocumentService.findForArchive(userId, List.of(1L), "finance"))
+                .isInstanceOf(InvalidBatchRequestException.class);
+        assertThatThrownBy(() -> bulkDocumentService.findForArchive(userId, null, null))
+                .isInstanceOf(InvalidBatchRequestException.class);
+    }
+
+    @Test
+    void entryNamesAreNumberedCaseInsensitively() {
+        Set<String> used = new HashSet<>();
+
+        assertThat(BulkDocumentService.entryName("Scan.PDF", used)).isEqualTo("Scan.PDF");
+        assertThat(BulkDocumentService.entryName("scan.pdf", used)).isEqualTo("scan (2).pdf");
+        assertThat(BulkDocumentService.entryName("a/b\\c", used)).isEqualTo("a_b_c");
+        assertThat(BulkDocumentService.entryName(null, used)).isEqualTo("document");
+    }
+
+    /**
+     * Run with {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "infolock.test.benchmark", matches = "true")
+    void batchThroughputAgainstSingleItemCalls() throws IOException {
+        int count = 200;
+
+        long start = System.nanoTime();
+        List<Long> singles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            singles.add(documentService.uploadDocument(file("single-" + i + ".txt", "single " + i),
+                    "bench", "single-" + i + ".txt", userId).getId());
+        }
+        double singleUploadRate = count / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(file("batch-" + i + ".txt", "batch " + i));
+        }
+        List<Long> batch = bulkDocumentService.uploadDocuments(files, "bench", userId).stream()
+                .map(DocumentDTO::getId).toList();
+        double batchUploadRate = count / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        for (Long id : singles) {
+            documentService.deleteDocument(id, userId);
+        }
+        double singleDeleteRate = count / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        bulkDocumentService.deleteDocuments(batch, userId);
+        double batchDeleteRate = count / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("upload: single %.0f docs/s, batch %.0f docs/s; delete: single %.0f docs/s, batch %.0f docs/s%n",
+                singleUploadRate, batchUploadRate, singleDeleteRate, batchDeleteRate);
+        assertThat(documentService.getUserDocuments(userId)).isEmpty();
+    }
+
+    private Long createUser() {
+        String email = "bulk-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        return user.getId();
+    }
+
+    private static MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("files", name, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,123 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.DocumentPage;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.exception.InvalidPageRequestException;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentPaginationTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private final List<Document> documents = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String email = "pager-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        userId = user.getId();
+
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 25; i++) {
+            Document document = documentRepository.save(Document.builder()
+                    .fileName("doc-" + i + ".txt")
+                    .fileType("text/plain")
+                    .category(i % 2 == 0 ? "even" : "odd")
+                    .fileSize(1L)
+                    .user(user)
+                    .build());
+            // Every fifth document shares its timestamp with the next four, so pages split ties
+            LocalDateTime uploadDate = base.plusMinutes(i / 5);
+            jdbcTemplate.update("UPDATE documents SET upload_date = ? WHERE id = ?", uploadDate, document.getId());
+            document.setUploadDate(uploadDate);
+            documents.add(document);
+        }
+    }
+
+    @Test
+    void walksEveryDocumentNewestFirstWithoutGapsOrDuplicates() {
+        List<Long> expected = documents.stream()
+                .sorted(Comparator.comparing(Document::getUploadDate).thenComparing(Document::getId).reversed())
+                .map(Document::getId)
+                .toList();
+
+        assertThat(collect(null, "newest", 7)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void walksOneCategoryOldestFirst() {
+        List<Long> expected = documents.stream()
+                .filter(document -> document.getCategory().equals("odd"))
+                .sorted(Comparator.comparing(Document::getUploadDate).thenComparing(Document::getId))
+                .map(Document::getId)
+                .toList();
+
+        assertThat(collect("odd", "oldest", 4)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        DocumentPage page = documentService.getUserDocumentPage(userId, null, "newest", 25, null);
+
+        assertThat(page.getDocuments()).hasSize(25);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedRequests() {
+        assertThatThrownBy(() -> documentService.getUserDocumentPage(userId, null, "newest", 10, "not-a-cursor"))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> documentService.getUserDocumentPage(userId, null, "largest", 10, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> documentService.getUserDocumentPage(userId, null, "newest", 0, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+    }
+
+    private List<Long> collect(String category, String sort, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            DocumentPage page = documentService.getUserDocumentPage(userId, category, sort, limit, cursor);
+            assertThat(page.getDocuments()).hasSizeLessThanOrEqualTo(limit);
+            page.getDocuments().stream().map(DocumentDTO::getId).forEach(ids::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
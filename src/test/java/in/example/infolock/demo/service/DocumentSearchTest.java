@@ -0,0 +1,79 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.search.SearchIndexer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DocumentSearchTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentSearchService documentSearchService;
+
+    @Autowired
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String email = "search-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        userId = user.getId();
+    }
+
+    @Test
+    void committedChangesBecomeSearchable() throws Exception {
+        DocumentDTO uploaded = documentService.uploadDocument(
+                new ByteArrayInputStream("Renewal due for the home insurance policy".getBytes(StandardCharsets.UTF_8)),
+                "text/plain", "insurance", "policy.txt", userId);
+        assertThat(searchIndexer.awaitIdle(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(documentSearchService.search(userId, "renewal", 10))
+                .extracting(DocumentDTO::getId)
+                .containsExactly(uploaded.getId());
+
+        documentService.deleteDocument(uploaded.getId(), userId);
+        assertThat(searchIndexer.awaitIdle(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(documentSearchService.search(userId, "renewal", 10)).isEmpty();
+    }
+
+    @Test
+    void rebuildRestoresTheIndexFromTheDatabase() throws Exception {
+        DocumentDTO uploaded = documentService.uploadDocument(
+                new ByteArrayInputStream("Vaccination record".getBytes(StandardCharsets.UTF_8)),
+                "text/plain", "health", "vaccines.txt", userId);
+
+        searchIndexer.rebuild();
+        assertThat(searchIndexer.awaitIdle(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(documentSearchService.search(userId, "vaccination", 10))
+                .extracting(DocumentDTO::getId)
+                .containsExactly(uploaded.getId());
+    }
+}
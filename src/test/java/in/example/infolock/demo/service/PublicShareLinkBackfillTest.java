@@ -0,0 +1,108 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PublicShareLinkBackfillTest {
+
+    @Autowired
+    private PublicShareLinkBackfill publicShareLinkBackfill;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private ShareLinkRepository shareLinkRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserEntity user;
+
+    @BeforeEach
+    void setUp() {
+        String email = "backfill-" + UUID.randomUUID() + "@example.com";
+        user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+    }
+
+    @Test
+    void keepsTheNewestLegacyPublicLinkOfEachDocument() {
+        Document document = document();
+        String older = insertLegacyPublicLink(document);
+        String newer = insertLegacyPublicLink(document);
+        assertThat(shareService.isDocumentPublic(document.getId())).isFalse();
+
+        publicShareLinkBackfill.run();
+
+        assertThat(shareLinkRepository.findByPublicDocumentId(document.getId()))
+                .map(ShareLink::getToken)
+                .contains(newer);
+        ShareLink demoted = shareLinkRepository.findByToken(older).orElseThrow();
+        assertThat(demoted.getIsPublic()).isFalse();
+        assertThat(demoted.getIsActive()).isTrue();
+    }
+
+    @Test
+    void keepsThePublicLinkThatAlreadyHoldsTheColumn() {
+        Document document = document();
+        String legacy = insertLegacyPublicLink(document);
+        shareService.toggleDocumentPublic(document.getId(), true);
+        ShareLink current = shareLinkRepository.findByPublicDocumentId(document.getId()).orElseThrow();
+        assertThat(current.getToken()).isNotEqualTo(legacy);
+
+        publicShareLinkBackfill.run();
+
+        assertThat(shareLinkRepository.findByPublicDocumentId(document.getId()))
+                .map(ShareLink::getToken)
+                .contains(current.getToken());
+        assertThat(shareLinkRepository.findByToken(legacy).orElseThrow().getIsPublic()).isFalse();
+    }
+
+    private Document document() {
+        return documentRepository.save(Document.builder()
+                .fileName("public.txt")
+                .fileType("text/plain")
+                .category("notes")
+                .fileSize(1L)
+                .uploadDate(LocalDateTime.now())
+                .user(user)
+                .build());
+    }
+
+    // Written as before public_document_id existed, bypassing the entity callback that sets it
+    private String insertLegacyPublicLink(Document document) {
+        String token = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        jdbcTemplate.update(
+                "INSERT INTO share_links (token, document_id, is_active, is_public, view_count, created_date) " +
+                        "VALUES (?, ?, true, true, 0, CURRENT_TIMESTAMP)",
+                token, document.getId());
+        return token;
+    }
+}
@@ -0,0 +1,90 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ShareLinkSweeperTest {
+
+    @Autowired
+    private ShareLinkSweeper shareLinkSweeper;
+
+    @Autowired
+    private ShareLinkRepository shareLinkRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        String email = "sweeper-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        document = documentRepository.save(Document.builder()
+                .fileName("shared.txt")
+                .fileType("text/plain")
+                .category("notes")
+                .fileSize(1L)
+                .uploadDate(LocalDateTime.now())
+                .user(user)
+                .build());
+    }
+
+    @Test
+    void purgesExpiredAndDeactivatedLinksOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dead = new ArrayList<>();
+        // More than one batch of each kind
+        for (int i = 0; i < 1_200; i++) {
+            dead.add(save(true, now.minusDays(1)).getId());
+        }
+        for (int i = 0; i < 600; i++) {
+            dead.add(save(false, null).getId());
+        }
+        ShareLink unlimited = save(true, null);
+        ShareLink future = save(true, now.plusDays(1));
+
+        shareLinkSweeper.sweep();
+
+        assertThat(shareLinkRepository.findAllById(dead)).isEmpty();
+        assertThat(shareLinkRepository.existsById(unlimited.getId())).isTrue();
+        assertThat(shareLinkRepository.existsById(future.getId())).isTrue();
+    }
+
+    private ShareLink save(boolean active, LocalDateTime expiryDate) {
+        return shareLinkRepository.save(ShareLink.builder()
+                .token(UUID.randomUUID().toString().replace("-", "").substring(0, 16))
+                .document(document)
+                .isPublic(false)
+                .isActive(active)
+                .createdDate(LocalDateTime.now())
+                .expiryDate(expiryDate)
+                .viewCount(0)
+                .build());
+    }
+}
@@ -0,0 +1,191 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.ShareRequest;
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ShareTokenIndexTest {
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private ShareTokenIndex shareTokenIndex;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShareLinkRepository shareLinkRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        String email = "sharer-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        document = documentRepository.save(Document.builder()
+                .fileName("shared.txt")
+                .fileType("text/plain")
+                .category("notes")
+                .fileSize(1L)
+                .uploadDate(LocalDateTime.now())
+                .user(user)
+                .build());
+    }
+
+    @Test
+    void unknownTokensAreQueriedOnceThenRejectedFromTheIndex() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String token = UUID.randomUUID().toString();
+        statistics.clear();
+
+        assertThat(shareService.findViewableLink(token)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(shareService.findViewableLink(token)).isEmpty();
+        assertThat(shareService.findViewableLink(null)).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void linksCreatedElsewhereResolve() {
+        String token = UUID.randomUUID().toString();
+
+        // As written by another node: this node's index never hears of it
+        shareLinkRepository.save(ShareLink.builder()
+                .token(token)
+                .document(document)
+                .isActive(true)
+                .isPublic(false)
+                .build());
+
+        Optional<ShareLink> link = shareService.findViewableLink(token);
+        assertThat(link).isPresent();
+        assertThat(link.get().getDocument().getId()).isEqualTo(document.getId());
+        assertThat(shareTokenIndex.find(token)).isNotNull();
+    }
+
+    @Test
+    void linksDeactivatedElsewhereAreRejected() {
+        String token = create(null, null);
+        ShareLink stored = shareLinkRepository.findByToken(token).orElseThrow();
+        stored.setIsActive(false);
+        shareLinkRepository.save(stored);
+
+        assertThat(shareTokenIndex.find(token)).isNotNull();
+        double inactive = inactiveViews();
+        assertThat(shareService.findViewableLink(token)).isEmpty();
+        assertThat(shareTokenIndex.find(token)).isNull();
+        assertThat(inactiveViews()).isEqualTo(inactive + 1);
+    }
+
+    @Test
+    void linksDeactivatedAfterLookupAreNotAdmitted() {
+        String token = create(null, 5);
+        ShareLink link = shareService.findViewableLink(token).orElseThrow();
+
+        ShareLink stored = shareLinkRepository.findByToken(token).orElseThrow();
+        stored.setIsActive(false);
+        shareLinkRepository.save(stored);
+
+        double inactive = inactiveViews();
+        assertThat(shareService.admitView(link)).isFalse();
+        assertThat(inactiveViews()).isEqualTo(inactive + 1);
+        // Turned away as deactivated, not as used up
+        assertThat(shareTokenIndex.find(token)).isNull();
+        assertThat(shareTokenIndex.rejection(token)).isEqualTo("inactive");
+    }
+
+    @Test
+    void createdLinksResolveUntilDeactivated() {
+        String token = create(null, null);
+
+        Optional<ShareLink> link = shareService.findViewableLink(token);
+        assertThat(link).isPresent();
+        assertThat(link.get().getDocument().getId()).isEqualTo(document.getId());
+
+        shareService.deactivateShareLink(token);
+
+        double inactive = inactiveViews();
+        assertThat(shareService.findViewableLink(token)).isEmpty();
+        assertThat(inactiveViews()).isEqualTo(inactive + 1);
+    }
+
+    @Test
+    void usedUpLinksAreRejectedAfterTheirLastView() {
+        String token = create(null, 1);
+
+        ShareLink link = shareService.findViewableLink(token).orElseThrow();
+        assertThat(shareService.admitView(link)).isTrue();
+        assertThat(shareService.admitView(link)).isFalse();
+
+        assertThat(shareService.findViewableLink(token)).isEmpty();
+    }
+
+    @Test
+    void expiredLinksAreRejected() {
+        String token = create(1, null);
+        ShareLink stored = shareLinkRepository.findByToken(token).orElseThrow();
+        stored.setExpiryDate(LocalDateTime.now().minusMinutes(1));
+        shareTokenIndex.add(stored);
+
+        assertThat(shareService.findViewableLink(token)).isEmpty();
+        assertThat(shareTokenIndex.find(token)).isNull();
+    }
+
+    @Test
+    void loadRestoresActiveLinks() {
+        String token = create(null, null);
+        shareTokenIndex.remove(token);
+
+        shareTokenIndex.load();
+
+        assertThat(shareTokenIndex.find(token)).isNotNull();
+        assertThat(shareService.findViewableLink(token)).isPresent();
+    }
+
+    private double inactiveViews() {
+        return meterRegistry.counter("infolock.share.views", "outcome", "inactive").count();
+    }
+
+    private String create(Integer expiryDays, Integer maxViews) {
+        return shareService.createShareLink(new ShareRequest(document.getId(), false, expiryDays, maxViews))
+                .getShareToken();
+    }
+}
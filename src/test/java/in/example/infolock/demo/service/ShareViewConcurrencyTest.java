@@ -0,0 +1,173 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.entity.Document;
+import in.example.infolock.demo.entity.ShareLink;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.ShareLinkRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ShareViewConcurrencyTest {
+
+    private static final int VIEWERS = 5_000;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private ShareService shareService;
+
+    @Autowired
+    private ShareLinkRepository shareLinkRepository;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        String email = "viewer-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        document = documentRepository.save(Document.builder()
+                .fileName("shared.txt")
+                .fileType("text/plain")
+                .category("notes")
+                .fileSize(1L)
+                .uploadDate(LocalDateTime.now())
+                .user(user)
+                .build());
+    }
+
+    @Test
+    void limitedLinkNeverAdmitsMoreThanMaxViews() throws Exception {
+        ShareLink link = createLink(100);
+
+        int admitted = viewConcurrently(link, VIEWERS);
+
+        assertThat(admitted).isEqualTo(100);
+        assertThat(shareLinkRepository.findById(link.getId()).orElseThrow().getViewCount()).isEqualTo(100);
+    }
+
+    @Test
+    void unlimitedLinkCountsEveryViewAfterFlush() throws Exception {
+        ShareLink link = createLink(null);
+
+        int admitted = viewConcurrently(link, VIEWERS);
+        shareService.flushPendingViews();
+
+        assertThat(admitted).isEqualTo(VIEWERS);
+        assertThat(shareLinkRepository.findById(link.getId()).orElseThrow().getViewCount()).isEqualTo(VIEWERS);
+    }
+
+    @Test
+    void viewsCountedDuringAFlushAreNotLost() throws Exception {
+        ShareLink link = createLink(null);
+        AtomicBoolean viewing = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (viewing.get()) {
+                shareService.flushPendingViews();
+            }
+        });
+        flusher.start();
+
+        int admitted;
+        try {
+            admitted = viewConcurrently(link, VIEWERS);
+        } finally {
+            viewing.set(false);
+            flusher.join();
+        }
+        shareService.flushPendingViews();
+
+        assertThat(shareLinkRepository.findById(link.getId()).orElseThrow().getViewCount()).isEqualTo(admitted);
+    }
+
+    /**
+     * Run with {@code mvn test -Pbenchmark}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "infolock.test.benchmark", matches = "true")
+    void viewAdmissionThroughput() throws Exception {
+        int views = 50_000;
+        ShareLink limited = createLink(Integer.MAX_VALUE);
+        ShareLink unlimited = createLink(null);
+
+        long start = System.nanoTime();
+        viewConcurrently(limited, views);
+        double limitedRate = views / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        viewConcurrently(unlimited, views);
+        shareService.flushPendingViews();
+        double unlimitedRate = views / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("share view admission: limited %.0f views/s, unlimited %.0f views/s (%d threads)%n",
+                limitedRate, unlimitedRate, THREADS);
+        assertThat(shareLinkRepository.findById(unlimited.getId()).orElseThrow().getViewCount()).isEqualTo(views);
+    }
+
+    private ShareLink createLink(Integer maxViews) {
+        return shareLinkRepository.save(ShareLink.builder()
+                .token(UUID.randomUUID().toString().replace("-", "").substring(0, 16))
+                .document(document)
+                .isPublic(false)
+                .isActive(true)
+                .createdDate(LocalDateTime.now())
+                .maxViews(maxViews)
+                .viewCount(0)
+                .build());
+    }
+
+    private int viewConcurrently(ShareLink link, int views) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < views; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    if (shareService.admitView(link)) {
+                        admitted.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return admitted.get();
+    }
+}
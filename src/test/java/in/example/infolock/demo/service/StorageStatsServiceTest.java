@@ -0,0 +1,54 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.StorageStatsDTO;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.storage.stats-refresh=PT0S")
+@ActiveProfiles("test")
+class StorageStatsServiceTest {
+
+    @Autowired
+    private StorageStatsService storageStatsService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void deduplicationIsMeasuredOnOriginalSizes() throws Exception {
+        String email = "stats-" + UUID.randomUUID() + "@example.com";
+        Long userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+        byte[] content = (UUID.randomUUID() + " compresses well. ").repeat(2_000).getBytes(StandardCharsets.UTF_8);
+        StorageStatsDTO before = storageStatsService.getStats();
+
+        for (int i = 0; i < 2; i++) {
+            documentService.uploadDocument(new ByteArrayInputStream(content), "text/plain", "notes",
+                    "copy-" + i + ".txt", userId);
+        }
+
+        StorageStatsDTO after = storageStatsService.getStats();
+        assertThat(after.getLogicalBytes() - before.getLogicalBytes()).isEqualTo(2L * content.length);
+        assertThat(after.getUniqueBytes() - before.getUniqueBytes()).isEqualTo(content.length);
+        // Stored once and compressed, which shows in the compression figures only
+        assertThat(after.getPhysicalBytes() - before.getPhysicalBytes()).isLessThan(content.length / 10);
+        assertThat(after.getDedupRatio()).isEqualTo((double) after.getLogicalBytes() / after.getUniqueBytes());
+        assertThat(after.getCompressionRatio()).isEqualTo((double) after.getUniqueBytes() / after.getPhysicalBytes());
+    }
+}
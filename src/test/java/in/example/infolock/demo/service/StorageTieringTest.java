@@ -0,0 +1,141 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.repository.ContentBlobRepository;
+import in.example.infolock.demo.repository.DocumentRepository;
+import in.example.infolock.demo.repository.UserRepository;
+import in.example.infolock.demo.storage.ArchiveStore;
+import in.example.infolock.demo.storage.LocalBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StorageTieringTest {
+
+    @Autowired
+    private StorageTieringService storageTieringService;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DocumentAccessTracker documentAccessTracker;
+
+    @Autowired
+    private BlobReferenceService blobReferenceService;
+
+    @Autowired
+    private LocalBlobStore localBlobStore;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String email = "tiering-" + UUID.randomUUID() + "@example.com";
+        UserEntity user = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build());
+        userId = user.getId();
+    }
+
+    @Test
+    void coldContentMovesToArchiveAndBackWhenReadAgain() throws IOException {
+        byte[] content = ("quarterly report " + UUID.randomUUID()).repeat(50).getBytes(StandardCharsets.UTF_8);
+        DocumentDTO document = upload(content);
+        String key = documentRepository.findById(document.getId()).orElseThrow().getContentKey();
+        backdate(document.getId(), key, LocalDateTime.now().minusDays(30));
+
+        storageTieringService.moveColdBlobs();
+
+        assertThat(contentBlobRepository.findById(key).orElseThrow().getArchived()).isTrue();
+        assertThat(archiveStore.contains(key)).isTrue();
+        assertThat(localBlobStore.exists(key)).isFalse();
+        assertThat(download(document.getId())).isEqualTo(content);
+
+        download(document.getId());
+        download(document.getId());
+        storageTieringService.promoteRereadBlobs();
+
+        assertThat(contentBlobRepository.findById(key).orElseThrow().getArchived()).isFalse();
+        assertThat(localBlobStore.exists(key)).isTrue();
+        assertThat(archiveStore.contains(key)).isFalse();
+        assertThat(download(document.getId())).isEqualTo(content);
+    }
+
+    @Test
+    void recentlyReadContentStaysHot() throws IOException {
+        DocumentDTO document = upload(("still in use " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        String key = documentRepository.findById(document.getId()).orElseThrow().getContentKey();
+        backdate(document.getId(), key, LocalDateTime.now().minusDays(30));
+        download(document.getId());
+        documentAccessTracker.flush();
+
+        storageTieringService.moveColdBlobs();
+
+        assertThat(archiveStore.contains(key)).isFalse();
+        assertThat(localBlobStore.exists(key)).isTrue();
+    }
+
+    @Test
+    void reclaimingArchivedContentRemovesItFromTheArchive() throws IOException {
+        DocumentDTO document = upload(("short lived " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        String key = documentRepository.findById(document.getId()).orElseThrow().getContentKey();
+        backdate(document.getId(), key, LocalDateTime.now().minusDays(30));
+        storageTieringService.moveColdBlobs();
+        assertThat(archiveStore.contains(key)).isTrue();
+
+        documentService.deleteDocument(document.getId(), userId);
+        blobReferenceService.reclaimUnreferenced();
+
+        assertThat(contentBlobRepository.existsById(key)).isFalse();
+        assertThat(archiveStore.contains(key)).isFalse();
+    }
+
+    private DocumentDTO upload(byte[] content) throws IOException {
+        return documentService.uploadDocument(new ByteArrayInputStream(content), "text/plain", "archive",
+                "report.txt", userId);
+    }
+
+    private byte[] download(Long documentId) throws IOException {
+        try (InputStream in = documentService.downloadUserDocument(documentId, userId).getContent().getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void backdate(Long documentId, String key, LocalDateTime date) {
+        jdbcTemplate.update("UPDATE documents SET upload_date = ? WHERE id = ?", date, documentId);
+        jdbcTemplate.update("UPDATE content_blobs SET created_date = ? WHERE content_key = ?", date, key);
+    }
+}
@@ -0,0 +1,93 @@
+package in.example.infolock.demo.service;
+
+import in.example.infolock.demo.dto.DocumentDTO;
+import in.example.infolock.demo.dto.UploadSessionRequest;
+import in.example.infolock.demo.dto.UploadSessionResponse;
+import in.example.infolock.demo.entity.UserEntity;
+import in.example.infolock.demo.exception.InvalidFileException;
+import in.example.infolock.demo.exception.UploadSessionNotFoundException;
+import in.example.infolock.demo.exception.UploadTooLargeException;
+import in.example.infolock.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UploadSessionServiceTest {
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        String email = "resumable-" + UUID.randomUUID() + "@example.com";
+        userId = userRepository.save(UserEntity.builder()
+                .username(email)
+                .email(email)
+                .password("secret")
+                .build()).getId();
+    }
+
+    @Test
+    void failedCompletionKeepsTheSessionForRetry() throws Exception {
+        String sessionId = createSession();
+        uploadSessionService.uploadPart(sessionId, 1, bytes(""), null, userId);
+
+        assertThatThrownBy(() -> uploadSessionService.completeSession(sessionId, userId))
+                .isInstanceOf(InvalidFileException.class);
+        assertThat(uploadSessionService.getSession(sessionId, userId).getReceivedParts()).hasSize(1);
+
+        uploadSessionService.uploadPart(sessionId, 1, bytes("hello"), null, userId);
+        DocumentDTO document = uploadSessionService.completeSession(sessionId, userId);
+
+        assertThat(document.getFileSize()).isEqualTo(5);
+        assertThatThrownBy(() -> uploadSessionService.getSession(sessionId, userId))
+                .isInstanceOf(UploadSessionNotFoundException.class);
+    }
+
+    @Test
+    void rejectsPartsOverTheLimit() throws Exception {
+        String sessionId = createSession();
+
+        assertThatThrownBy(() -> uploadSessionService.uploadPart(
+                sessionId, 1, new ByteArrayInputStream(new byte[64 * 1024 + 1]), null, userId))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThat(uploadSessionService.getSession(sessionId, userId).getReceivedParts()).isEmpty();
+    }
+
+    @Test
+    void completesSessionsWithoutAFileType() throws Exception {
+        String sessionId = uploadSessionService.createSession(
+                new UploadSessionRequest("untyped.bin", null, "notes", null, null), userId).getSessionId();
+        uploadSessionService.uploadPart(sessionId, 1, bytes("hello"), null, userId);
+
+        DocumentDTO document = uploadSessionService.completeSession(sessionId, userId);
+
+        assertThat(document.getFileType()).isEqualTo("application/octet-stream");
+    }
+
+    private String createSession() {
+        UploadSessionResponse session = uploadSessionService.createSession(
+                new UploadSessionRequest("resumable.txt", "text/plain", "notes", null, null), userId);
+        return session.getSessionId();
+    }
+
+    private static ByteArrayInputStream bytes(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,27 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.UploadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedInputStreamTest {
+
+    @Test
+    void readsContentUpToTheLimit() throws Exception {
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[1024]), 1024);
+
+        assertThat(in.readAllBytes()).hasSize(1024);
+    }
+
+    @Test
+    void failsTheReadThatPassesTheLimit() {
+        InputStream in = new BoundedInputStream(new ByteArrayInputStream(new byte[1025]), 1024);
+
+        assertThatThrownBy(in::readAllBytes).isInstanceOf(UploadTooLargeException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package in.example.infolock.demo.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentEncoderTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void compressesTextAndDecodesOnRead() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(root.toString(), new SimpleMeterRegistry());
+        ContentEncoder encoder = new ContentEncoder(store, true, 7.5, 1024);
+        byte[] csv = "id,name,category\n1,passport,identity\n".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+        EncodedBlob encoded = encoder.stage(new ByteArrayInputStream(csv), "text/csv");
+        StoredBlob blob = store.commit(encoded.getStaged());
+
+        assertThat(encoded.getEncoding()).isEqualTo(ContentEncoder.GZIP);
+        assertThat(encoded.getOriginalSize()).isEqualTo(csv.length);
+        assertThat(blob.getSize()).isLessThan(csv.length / 10);
+        try (InputStream in = ContentEncoder.decode(store.open(blob.getKey()), encoded.getEncoding())) {
+            assertThat(in.readAllBytes()).isEqualTo(csv);
+        }
+    }
+
+    @Test
+    void storesAlreadyCompressedContentAsIs() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(root.toString(), new SimpleMeterRegistry());
+        ContentEncoder encoder = new ContentEncoder(store, true, 7.5, 1024);
+        byte[] noise = new byte[128 * 1024];
+        new Random(42).nextBytes(noise);
+
+        EncodedBlob byType = encoder.stage(new ByteArrayInputStream(noise), "image/jpeg");
+        EncodedBlob byEntropy = encoder.stage(new ByteArrayInputStream(noise), "application/octet-stream");
+
+        assertThat(byType.getEncoding()).isNull();
+        assertThat(byEntropy.getEncoding()).isNull();
+        assertThat(byEntropy.getStaged().getSize()).isEqualTo(noise.length);
+    }
+}
@@ -0,0 +1,87 @@
+package in.example.infolock.demo.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotContentCacheTest {
+
+    @TempDir
+    Path root;
+
+    private LocalBlobStore store;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new LocalBlobStore(root.toString(), new SimpleMeterRegistry());
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void servesRepeatedReadsFromMemory() throws Exception {
+        HotContentCache cache = new HotContentCache(store, registry, DataSize.ofKilobytes(64), DataSize.ofKilobytes(16));
+        byte[] content = "shared document".getBytes(StandardCharsets.UTF_8);
+        StoredBlob blob = store.put(new ByteArrayInputStream(content));
+
+        assertThat(cache.get(blob.getKey())).isEqualTo(content);
+        store.delete(blob.getKey());
+        assertThat(cache.get(blob.getKey())).isEqualTo(content);
+
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bypassesBlobsOverTheEntryLimit() throws Exception {
+        HotContentCache cache = new HotContentCache(store, registry, DataSize.ofKilobytes(64), DataSize.ofKilobytes(16));
+        StoredBlob blob = store.put(new ByteArrayInputStream(randomBytes(32 * 1024, 1)));
+
+        assertThat(cache.get(blob.getKey())).isNull();
+        assertThat(cache.weightedSize()).isZero();
+        assertThat(registry.get("infolock.share.content.bypassed").counter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void documentsWithTheSameContentShareOneEntry() throws Exception {
+        HotContentCache cache = new HotContentCache(store, registry, DataSize.ofKilobytes(64), DataSize.ofKilobytes(16));
+        StoredBlob blob = store.put(new ByteArrayInputStream(randomBytes(1024, 1)));
+
+        cache.get(blob.getKey());
+        cache.get(blob.getKey());
+        cache.cleanUp();
+
+        assertThat(cache.weightedSize()).isEqualTo(1024);
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void staysWithinTheByteBudget() throws Exception {
+        HotContentCache cache = new HotContentCache(store, registry, DataSize.ofKilobytes(64), DataSize.ofKilobytes(16));
+        for (int i = 0; i < 20; i++) {
+            StoredBlob blob = store.put(new ByteArrayInputStream(randomBytes(16 * 1024, i)));
+            cache.get(blob.getKey());
+        }
+
+        cache.cleanUp();
+
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(64 * 1024);
+        assertThat(registry.get("cache.evictions").functionCounter().count()).isPositive();
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,53 @@
+package in.example.infolock.demo.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesContentUnderItsSha256() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(root.toString(), new SimpleMeterRegistry());
+        byte[] content = "hello infolock".getBytes(StandardCharsets.UTF_8);
+
+        StoredBlob blob = store.put(new ByteArrayInputStream(content));
+
+        assertThat(blob.getKey()).isEqualTo(sha256(content));
+        assertThat(blob.getSize()).isEqualTo(content.length);
+        try (InputStream in = store.open(blob.getKey())) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void identicalContentSharesOneBlob() throws Exception {
+        LocalBlobStore store = new LocalBlobStore(root.toString(), new SimpleMeterRegistry());
+        byte[] content = "same bytes".getBytes(StandardCharsets.UTF_8);
+
+        StoredBlob first = store.put(new ByteArrayInputStream(content));
+        StoredBlob second = store.put(new ByteArrayInputStream(content));
+
+        assertThat(second.getKey()).isEqualTo(first.getKey());
+        try (var files = Files.walk(root)) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,74 @@
+package in.example.infolock.demo.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void storesAndReadsPreviewsByContentKey() throws IOException {
+        ThumbnailStore store = store(DataSize.ofKilobytes(100));
+
+        store.put(key('a'), new byte[]{1, 2, 3});
+
+        assertThat(store.exists(key('a'))).isTrue();
+        assertThat(store.get(key('a'))).containsExactly(1, 2, 3);
+        assertThat(store.get(key('b'))).isNull();
+        assertThat(Files.exists(root.resolve("aa").resolve(key('a') + "-256.jpg"))).isTrue();
+    }
+
+    @Test
+    void trimsLeastRecentlyReadPreviewsOverBudget() throws IOException {
+        ThumbnailStore store = store(DataSize.ofBytes(3_000));
+        store.put(key('a'), new byte[1_000]);
+        store.put(key('b'), new byte[1_000]);
+        age(key('a'), 60);
+        age(key('b'), 30);
+        // Reading a refreshes its position, so b is now the oldest
+        ThumbnailStore reopened = store(DataSize.ofBytes(3_000));
+        reopened.get(key('a'));
+
+        reopened.put(key('c'), new byte[1_500]);
+
+        assertThat(reopened.exists(key('a'))).isTrue();
+        assertThat(reopened.exists(key('b'))).isFalse();
+        assertThat(reopened.exists(key('c'))).isTrue();
+        assertThat(reopened.diskBytes()).isEqualTo(2_500);
+    }
+
+    @Test
+    void countsExistingPreviewsOnStartup() throws IOException {
+        store(DataSize.ofKilobytes(100)).put(key('a'), new byte[700]);
+
+        assertThat(store(DataSize.ofKilobytes(100)).diskBytes()).isEqualTo(700);
+        try (Stream<Path> tmp = Files.list(root.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    private ThumbnailStore store(DataSize maxDiskSize) throws IOException {
+        return new ThumbnailStore(new SimpleMeterRegistry(), root.toString(), 256, maxDiskSize, DataSize.ofMegabytes(1));
+    }
+
+    private void age(String key, int minutes) throws IOException {
+        Path path = root.resolve(key.substring(0, 2)).resolve(key + "-256.jpg");
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() - minutes * 60_000L));
+    }
+
+    private static String key(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+}
@@ -0,0 +1,77 @@
+package in.example.infolock.demo.storage;
+
+import in.example.infolock.demo.exception.InvalidFileException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadStagingAreaTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void assemblesPartsReceivedConcurrentlyAndOutOfOrder() throws Exception {
+        UploadStagingArea staging = new UploadStagingArea(root.toString());
+        String sessionId = UUID.randomUUID().toString();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<StagedPart>> futures = IntStream.of(5, 3, 1, 4, 2)
+                    .mapToObj(n -> executor.submit(() -> staging.writePart(sessionId, n, bytes("part" + n + ";"), null)))
+                    .toList();
+            for (Future<StagedPart> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<StagedPart> parts = staging.listParts(sessionId);
+        assertThat(parts).extracting(StagedPart::getPartNumber).containsExactly(1, 2, 3, 4, 5);
+        try (InputStream in = staging.openAssembled(parts)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .isEqualTo("part1;part2;part3;part4;part5;");
+        }
+    }
+
+    @Test
+    void retriedPartReplacesPreviousAttempt() throws Exception {
+        UploadStagingArea staging = new UploadStagingArea(root.toString());
+        String sessionId = UUID.randomUUID().toString();
+
+        staging.writePart(sessionId, 1, bytes("truncated"), null);
+        staging.writePart(sessionId, 1, bytes("complete"), null);
+
+        List<StagedPart> parts = staging.listParts(sessionId);
+        assertThat(parts).hasSize(1);
+        assertThat(parts.get(0).getSize()).isEqualTo("complete".length());
+    }
+
+    @Test
+    void rejectsPartWithWrongChecksum() throws Exception {
+        UploadStagingArea staging = new UploadStagingArea(root.toString());
+        String sessionId = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> staging.writePart(sessionId, 1, bytes("data"), "00".repeat(32)))
+                .isInstanceOf(InvalidFileException.class);
+        assertThat(staging.listParts(sessionId)).isEmpty();
+    }
+
+    private static InputStream bytes(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}